@@ -0,0 +1,229 @@
+package com.dependencyanalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tunable settings for an analysis run, read from -D system properties by default
+ */
+public class AnalysisOptions {
+    
+    public static final String PARALLELISM_PROPERTY = "analyzer.parallelism";
+    public static final String VIRTUAL_THREADS_PROPERTY = "analyzer.virtualThreads";
+    public static final String ALL_PAIRS_PROPERTY = "analyzer.allPairs";
+    public static final String CACHE_DIR_PROPERTY = "analyzer.cacheDir";
+    public static final String SNAPSHOT_PROPERTY = "analyzer.snapshot";
+    public static final String CHANGED_FILES_PROPERTY = "analyzer.changedFiles";
+    public static final String GIT_DIFF_PROPERTY = "analyzer.gitDiff";
+    public static final String TRANSITIVE_PROPERTY = "analyzer.transitive";
+    public static final String SIMILARITY_THRESHOLD_PROPERTY = "analyzer.similarityThreshold";
+    public static final String NEAR_DUPLICATE_THRESHOLD_PROPERTY = "analyzer.nearDuplicateThreshold";
+    public static final String EXCLUDE_PROPERTY = "analyzer.exclude";
+    public static final String PROFILES_PROPERTY = "analyzer.profiles";
+    
+    private int parallelism;
+    private boolean virtualThreads;
+    private boolean allPairs;
+    private String cacheDir;
+    private String snapshotFile;
+    private String changedFiles;
+    private String gitDiff;
+    private boolean transitive;
+    private double similarityThreshold;
+    private double nearDuplicateThreshold;
+    private List<String> excludes;
+    private List<String> profiles;
+    
+    public AnalysisOptions() {
+        this.parallelism = 1; // sequential
+        this.virtualThreads = false;
+        this.allPairs = false;
+        this.transitive = false;
+        this.similarityThreshold = 0; // compare every pair
+        this.nearDuplicateThreshold = 0; // near-duplicate detection off
+        this.excludes = new ArrayList<>();
+        this.profiles = new ArrayList<>();
+    }
+    
+    /**
+     * Builds options from system properties, falling back to defaults
+     */
+    public static AnalysisOptions fromSystemProperties() {
+        AnalysisOptions options = new AnalysisOptions();
+        options.setParallelism(Integer.getInteger(PARALLELISM_PROPERTY, options.getParallelism()));
+        options.setVirtualThreads(Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY));
+        options.setAllPairs(Boolean.getBoolean(ALL_PAIRS_PROPERTY));
+        options.setCacheDir(System.getProperty(CACHE_DIR_PROPERTY));
+        options.setSnapshotFile(System.getProperty(SNAPSHOT_PROPERTY));
+        options.setChangedFiles(System.getProperty(CHANGED_FILES_PROPERTY));
+        options.setGitDiff(System.getProperty(GIT_DIFF_PROPERTY));
+        options.setTransitive(Boolean.getBoolean(TRANSITIVE_PROPERTY));
+        options.setSimilarityThreshold(Double.parseDouble(System.getProperty(SIMILARITY_THRESHOLD_PROPERTY, "0")));
+        options.setNearDuplicateThreshold(Double.parseDouble(System.getProperty(NEAR_DUPLICATE_THRESHOLD_PROPERTY, "0")));
+        options.getExcludes().addAll(listProperty(EXCLUDE_PROPERTY));
+        options.getProfiles().addAll(listProperty(PROFILES_PROPERTY));
+        return options;
+    }
+    
+    /**
+     * Comma-separated values of a system property, empty if it is not set
+     */
+    private static List<String> listProperty(String name) {
+        List<String> values = new ArrayList<>();
+        String property = System.getProperty(name);
+        if (property != null) {
+            for (String value : property.split(",")) {
+                if (!value.trim().isEmpty()) {
+                    values.add(value.trim());
+                }
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Maximum number of repositories scanned at the same time (1 = sequential)
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+    
+    /**
+     * Whether to scan on virtual threads (JDK 21+); still bounded by the parallelism
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+    
+    /**
+     * Whether to compare every discovered repository with every other one instead of a single source
+     */
+    public boolean isAllPairs() {
+        return allPairs;
+    }
+    
+    public void setAllPairs(boolean allPairs) {
+        this.allPairs = allPairs;
+    }
+    
+    /**
+     * Directory for the persistent extraction cache, or null to always re-extract
+     */
+    public String getCacheDir() {
+        return cacheDir;
+    }
+    
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+    
+    /**
+     * File the analysis snapshot is written to, and read from for incremental runs
+     */
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+    
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+    
+    /**
+     * File listing changed paths, one per line, for an incremental run
+     */
+    public String getChangedFiles() {
+        return changedFiles;
+    }
+    
+    public void setChangedFiles(String changedFiles) {
+        this.changedFiles = changedFiles;
+    }
+    
+    /**
+     * Commit range ("from..to", or just "from" for the working tree) whose changes drive an incremental run
+     */
+    public String getGitDiff() {
+        return gitDiff;
+    }
+    
+    public void setGitDiff(String gitDiff) {
+        this.gitDiff = gitDiff;
+    }
+    
+    /**
+     * Whether library overlap includes transitive dependencies resolved from the local Maven repository
+     */
+    public boolean isTransitive() {
+        return transitive;
+    }
+    
+    public void setTransitive(boolean transitive) {
+        this.transitive = transitive;
+    }
+    
+    /**
+     * Estimated Jaccard similarity of imports, packages and config keys below which a pair
+     * is skipped by the file analyzer and by plugged-in analyzers that do not override
+     * {@link com.dependencyanalyzer.analyzer.Analyzer#comparesAllPairs()} (0 = compare every
+     * pair). The library, config and Feign client analyzers always compare every pair.
+     */
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+    
+    public void setSimilarityThreshold(double similarityThreshold) {
+        this.similarityThreshold = Math.max(0, Math.min(1, similarityThreshold));
+    }
+    
+    /**
+     * Fingerprint similarity above which two Java files in different repositories are
+     * reported as near-duplicates (0 = no near-duplicate detection)
+     */
+    public double getNearDuplicateThreshold() {
+        return nearDuplicateThreshold;
+    }
+    
+    public void setNearDuplicateThreshold(double nearDuplicateThreshold) {
+        this.nearDuplicateThreshold = Math.max(0, Math.min(1, nearDuplicateThreshold));
+    }
+    
+    /**
+     * Patterns in .gitignore syntax for files and directories every scan skips, on top of
+     * the build output and tool directories skipped by default (a "!" pattern re-includes)
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+    
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes;
+    }
+    
+    /**
+     * Spring profiles whose config is analyzed on top of the default one. Profile-specific
+     * files and documents are not parsed unless their profile is listed here.
+     */
+    public List<String> getProfiles() {
+        return profiles;
+    }
+    
+    public void setProfiles(List<String> profiles) {
+        this.profiles = profiles;
+    }
+    
+    /**
+     * Whether a snapshot and a source of changed files are both configured
+     */
+    public boolean isIncremental() {
+        return snapshotFile != null && (changedFiles != null || gitDiff != null);
+    }
+}
+
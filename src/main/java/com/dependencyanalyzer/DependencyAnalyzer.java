@@ -1,29 +1,117 @@
 package com.dependencyanalyzer;
 
+import com.dependencyanalyzer.analyzer.Analyzer;
+import com.dependencyanalyzer.analyzer.AnalyzerContext;
 import com.dependencyanalyzer.analyzer.FeignClientAnalyzer;
 import com.dependencyanalyzer.analyzer.FileDependencyAnalyzer;
+import com.dependencyanalyzer.analyzer.InfrastructureAnalyzer;
+import com.dependencyanalyzer.analyzer.JavaSourceParser;
 import com.dependencyanalyzer.analyzer.LibraryDependencyAnalyzer;
 import com.dependencyanalyzer.analyzer.ConfigDependencyAnalyzer;
+import com.dependencyanalyzer.index.FactIndex;
+import com.dependencyanalyzer.index.SymbolTable;
+import com.dependencyanalyzer.index.MinHashIndex;
+import com.dependencyanalyzer.model.AnalysisSnapshot;
 import com.dependencyanalyzer.model.DependencyInfo;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.ChangeSet;
+import com.dependencyanalyzer.scanner.ExtractionCache;
+import com.dependencyanalyzer.scanner.IgnoreRules;
+import com.dependencyanalyzer.scanner.RepositoryScanner;
+import com.dependencyanalyzer.scanner.ScanExecutor;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 /**
  * Main dependency analyzer that coordinates all analysis types
  */
 public class DependencyAnalyzer {
     
+    private static final int MAX_SHARED_RESOURCES_PRINTED = 20;
+    // Bump whenever the snapshot layout changes so older snapshots trigger a full run
+    private static final int SNAPSHOT_VERSION = 2;
+    
     private final LibraryDependencyAnalyzer libraryAnalyzer;
-    private final FileDependencyAnalyzer fileAnalyzer;
-    private final FeignClientAnalyzer feignClientAnalyzer;
-    private final ConfigDependencyAnalyzer configAnalyzer;
+    // Built-in analyzers first, then the ones found on the classpath, in reporting order
+    private final List<Analyzer> analyzers = new ArrayList<>();
+    private final RepositoryScanner scanner;
+    private final AnalysisOptions options;
+    // Options that change the extracted facts, and those plus the ones that change the comparisons
+    private final String extractionSettings;
+    private final String snapshotSettings;
+    
+    private AnalysisSnapshot lastSnapshot;
+    // Fact strings of the current run, shared by the scanner and the fact index
+    private SymbolTable symbols = new SymbolTable();
     
     public DependencyAnalyzer() {
+        this(new AnalysisOptions());
+    }
+    
+    public DependencyAnalyzer(AnalysisOptions options) {
+        this.options = options;
         this.libraryAnalyzer = new LibraryDependencyAnalyzer();
-        this.fileAnalyzer = new FileDependencyAnalyzer();
-        this.feignClientAnalyzer = new FeignClientAnalyzer();
-        this.configAnalyzer = new ConfigDependencyAnalyzer();
+        this.libraryAnalyzer.setTransitive(options.isTransitive());
+        // One parser pool for every analyzer that reads Java syntax trees
+        JavaSourceParser javaParser = new JavaSourceParser();
+        FileDependencyAnalyzer fileAnalyzer = new FileDependencyAnalyzer(javaParser);
+        fileAnalyzer.setNearDuplicateThreshold(options.getNearDuplicateThreshold());
+        ConfigDependencyAnalyzer configAnalyzer = new ConfigDependencyAnalyzer();
+        configAnalyzer.setProfiles(options.getProfiles());
+        analyzers.add(libraryAnalyzer);
+        analyzers.add(fileAnalyzer);
+        analyzers.add(new FeignClientAnalyzer(javaParser));
+        analyzers.add(configAnalyzer);
+        analyzers.add(new InfrastructureAnalyzer(javaParser, configAnalyzer));
+        loadAnalyzers(new AnalyzerContext(javaParser, configAnalyzer));
+        
+        // Facts extracted without an analyzer lack what it extracts, so the analyzer list is part of the settings
+        String analyzerNames = analyzers.stream().map(analyzer -> analyzer.getClass().getName())
+            .collect(Collectors.joining(","));
+        this.extractionSettings = "profiles=" + new TreeSet<>(options.getProfiles()) + ";analyzers=" + analyzerNames
+            + ";fingerprints=" + (options.getNearDuplicateThreshold() > 0);
+        this.snapshotSettings = "snapshot=" + SNAPSHOT_VERSION + ";" + extractionSettings
+            + ";excludes=" + new TreeSet<>(options.getExcludes()) + ";transitive=" + options.isTransitive()
+            + ";similarity=" + options.getSimilarityThreshold() + ";nearDuplicates=" + options.getNearDuplicateThreshold();
+        
+        this.scanner = new RepositoryScanner(analyzers);
+        if (options.getCacheDir() != null) {
+            scanner.setCache(new ExtractionCache(options.getCacheDir(), extractionSettings));
+        }
+        scanner.setIgnoreRules(new IgnoreRules(options.getExcludes()));
+    }
+    
+    /**
+     * Adds the analyzers registered with {@link ServiceLoader} by jars on the classpath.
+     * One that fails to load is reported and skipped.
+     */
+    private void loadAnalyzers(AnalyzerContext context) {
+        Iterator<Analyzer> loaded = ServiceLoader.load(Analyzer.class).iterator();
+        while (true) {
+            try {
+                if (!loaded.hasNext()) {
+                    break;
+                }
+                Analyzer analyzer = loaded.next();
+                analyzer.init(context);
+                analyzers.add(analyzer);
+            } catch (ServiceConfigurationError e) {
+                System.err.println("Error loading analyzer: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Drops what earlier runs on this instance left behind: parsed POMs, which may have
+     * changed since, and the fact strings of repositories that may no longer be analyzed
+     */
+    private void startRun() {
+        libraryAnalyzer.startRun();
+        symbols = new SymbolTable();
+        scanner.setSymbolTable(symbols);
     }
     
     /**
@@ -34,41 +122,318 @@ public class DependencyAnalyzer {
      * @return List of all detected dependencies
      */
     public List<DependencyInfo> analyzeDependencies(String sourceRepoPath, Map<String, String> otherRepos) {
-        List<DependencyInfo> allDependencies = new ArrayList<>();
-        
         System.out.println("Starting dependency analysis...");
+        startRun();
         System.out.println("Source repository: " + sourceRepoPath);
         System.out.println("Comparing with " + otherRepos.size() + " repositories");
         
-        // Analyze library dependencies
-        System.out.println("\n[1/4] Analyzing library dependencies...");
-        List<DependencyInfo> libraryDeps = libraryAnalyzer.analyzeLibraryDependencies(sourceRepoPath, otherRepos);
-        allDependencies.addAll(libraryDeps);
-        System.out.println("Found " + libraryDeps.size() + " library dependencies");
-        
-        // Analyze file dependencies
-        System.out.println("\n[2/4] Analyzing file and import dependencies...");
-        List<DependencyInfo> fileDeps = fileAnalyzer.analyzeFileDependencies(sourceRepoPath, otherRepos);
-        allDependencies.addAll(fileDeps);
-        System.out.println("Found " + fileDeps.size() + " file dependencies");
-        
-        // Analyze Feign client dependencies
-        System.out.println("\n[3/4] Analyzing Feign client dependencies...");
-        List<DependencyInfo> feignDeps = feignClientAnalyzer.analyzeFeignClients(sourceRepoPath, otherRepos);
-        allDependencies.addAll(feignDeps);
-        System.out.println("Found " + feignDeps.size() + " Feign client dependencies");
-        
-        // Analyze configuration dependencies
-        System.out.println("\n[4/4] Analyzing configuration dependencies...");
-        List<DependencyInfo> configDeps = configAnalyzer.analyzeConfigDependencies(sourceRepoPath, otherRepos);
-        allDependencies.addAll(configDeps);
-        System.out.println("Found " + configDeps.size() + " configuration dependencies");
+        // Walk every repository once; all analyzers work from the extracted facts
+        System.out.println("\nScanning repositories (parallelism: " + options.getParallelism() + ")...");
+        List<Callable<RepositoryFacts>> tasks = new ArrayList<>();
+        tasks.add(() -> scanner.scan(sourceRepoPath));
+        for (Map.Entry<String, String> entry : otherRepos.entrySet()) {
+            tasks.add(() -> scanner.scan(entry.getKey(), entry.getValue()));
+        }
+        List<RepositoryFacts> scanned = scanAll(tasks);
+        
+        resolveRepositories(scanned);
+        
+        // Keep the caller's repository order so results match a sequential run
+        RepositoryFacts source = scanned.get(0);
+        List<DependencyInfo> dependencies = compareScanned(comparisonsFor(source, scanned), new FactIndex(scanned, symbols));
+        lastSnapshot = snapshotOf(source.getName(), scanned, dependencies);
+        return dependencies;
+    }
+    
+    /**
+     * Analyzes dependencies between every pair of repositories. Each repository is
+     * scanned once and every unordered pair is compared once, in repository name order.
+     * 
+     * @param repos Map of repository names to their paths
+     * @return List of all detected dependencies
+     */
+    public List<DependencyInfo> analyzeAllPairs(Map<String, String> repos) {
+        System.out.println("Starting all-pairs dependency analysis...");
+        startRun();
+        System.out.println("Comparing " + repos.size() + " repositories with each other");
+        
+        System.out.println("\nScanning repositories (parallelism: " + options.getParallelism() + ")...");
+        Map<String, String> sortedRepos = new TreeMap<>(repos);
+        List<Callable<RepositoryFacts>> tasks = new ArrayList<>();
+        for (Map.Entry<String, String> entry : sortedRepos.entrySet()) {
+            tasks.add(() -> scanner.scan(entry.getKey(), entry.getValue()));
+        }
+        List<RepositoryFacts> scanned = scanAll(tasks);
+        resolveRepositories(scanned);
+        
+        List<DependencyInfo> dependencies = compareScanned(comparisonsFor(null, scanned), new FactIndex(scanned, symbols));
+        lastSnapshot = snapshotOf(null, scanned, dependencies);
+        return dependencies;
+    }
+    
+    /**
+     * Whether a snapshot was taken with the same options, so that
+     * {@link #analyzeIncremental(AnalysisSnapshot, ChangeSet)} can update it
+     */
+    public boolean canUpdate(AnalysisSnapshot snapshot) {
+        return snapshotSettings.equals(snapshot.getSettings());
+    }
+    
+    /**
+     * Updates a previous analysis after some files changed. Only the changed files are
+     * re-extracted and only pairs involving a changed repository are compared again;
+     * all other dependencies are taken from the snapshot.
+     * 
+     * @param snapshot Result of an earlier run with the same options, see {@link #canUpdate(AnalysisSnapshot)}
+     * @param changes Files changed since that run
+     * @return List of all dependencies, in the same order as a full run
+     * @throws IllegalArgumentException If the snapshot was taken with other options
+     */
+    public List<DependencyInfo> analyzeIncremental(AnalysisSnapshot snapshot, ChangeSet changes) {
+        if (!canUpdate(snapshot)) {
+            throw new IllegalArgumentException("Snapshot was taken with other settings: " + snapshot.getSettings());
+        }
+        System.out.println("Starting incremental dependency analysis...");
+        startRun();
+        
+        // Rebuild the scanned repositories from the snapshot and re-extract changed files
+        List<RepositoryFacts> repos = new ArrayList<>();
+        Set<String> changedRepos = new HashSet<>();
+        for (Map.Entry<String, String> entry : snapshot.getRepositories().entrySet()) {
+            RepositoryFacts facts = new RepositoryFacts(entry.getKey(), entry.getValue());
+            snapshot.getFiles().getOrDefault(entry.getKey(), Collections.emptyMap()).forEach((path, file) -> {
+                file.canonicalize(symbols::canonical);
+                facts.addFile(symbols.canonical(path), file);
+            });
+            
+            Set<String> changedFiles = changes.getChangedFiles(entry.getKey());
+            if (!changedFiles.isEmpty()) {
+                scanner.rescanFiles(facts, changedFiles);
+                changedRepos.add(entry.getKey());
+            }
+            repos.add(facts);
+        }
+        System.out.println("Changed repositories: " + changedRepos.size() + " of " + repos.size());
+        resolveRepositories(repos);
+        
+        RepositoryFacts source = snapshot.isAllPairs() ? null : repos.get(0);
+        Map<RepositoryFacts, Map<String, RepositoryFacts>> comparisons = comparisonsFor(source, repos);
+        
+        // Only pairs with a changed side need to be compared again
+        Map<RepositoryFacts, Map<String, RepositoryFacts>> changedComparisons = new LinkedHashMap<>();
+        comparisons.forEach((repo, targets) -> {
+            Map<String, RepositoryFacts> changedTargets = new LinkedHashMap<>();
+            targets.forEach((name, target) -> {
+                if (changedRepos.contains(repo.getName()) || changedRepos.contains(name)) {
+                    changedTargets.put(name, target);
+                }
+            });
+            if (!changedTargets.isEmpty()) {
+                changedComparisons.put(repo, changedTargets);
+            }
+        });
+        
+        List<DependencyInfo> dependencies = new ArrayList<>();
+        for (DependencyInfo dep : snapshot.getDependencies()) {
+            if (!changedRepos.contains(dep.getSourceRepo()) && !changedRepos.contains(dep.getTargetRepo())) {
+                dependencies.add(dep);
+            }
+        }
+        if (!changedComparisons.isEmpty()) {
+            dependencies.addAll(compareScanned(changedComparisons, new FactIndex(repos, symbols)));
+        }
+        
+        // Restore full-run order: by the analyzer that reported it, then by position of the pair
+        Map<String, Integer> analyzerOrder = new HashMap<>();
+        reportingAnalyzers().forEach(analyzer -> analyzerOrder.putIfAbsent(analyzer.getClass().getName(), analyzerOrder.size()));
+        Map<String, Integer> pairOrder = new HashMap<>();
+        comparisons.forEach((repo, targets) -> targets.keySet().forEach(name ->
+            pairOrder.putIfAbsent(pairKey(repo.getName(), name), pairOrder.size())));
+        dependencies.sort(Comparator.comparing((DependencyInfo dep) -> analyzerOrder.getOrDefault(dep.getAnalyzer(), Integer.MAX_VALUE))
+            .thenComparing(dep -> pairOrder.getOrDefault(pairKey(dep.getSourceRepo(), dep.getTargetRepo()), Integer.MAX_VALUE)));
+        
+        lastSnapshot = snapshotOf(snapshot.getSourceRepo(), repos, dependencies);
+        return dependencies;
+    }
+    
+    /**
+     * Snapshot of the most recent analysis, for a later incremental run (null before the first run)
+     */
+    public AnalysisSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+    
+    /**
+     * Pairs each source with the repositories it is compared with. With a source, it is
+     * compared with all other repositories; without one, each repository is compared
+     * with the ones after it, so every pair appears once.
+     */
+    private Map<RepositoryFacts, Map<String, RepositoryFacts>> comparisonsFor(RepositoryFacts source,
+                                                                              List<RepositoryFacts> repos) {
+        Map<RepositoryFacts, Map<String, RepositoryFacts>> comparisons = new LinkedHashMap<>();
+        
+        if (source != null) {
+            Map<String, RepositoryFacts> targets = new LinkedHashMap<>();
+            for (RepositoryFacts facts : repos) {
+                if (facts != source) {
+                    targets.put(facts.getName(), facts);
+                }
+            }
+            comparisons.put(source, targets);
+            return comparisons;
+        }
+        
+        for (int i = 0; i < repos.size() - 1; i++) {
+            Map<String, RepositoryFacts> targets = new LinkedHashMap<>();
+            for (RepositoryFacts facts : repos.subList(i + 1, repos.size())) {
+                targets.put(facts.getName(), facts);
+            }
+            comparisons.put(repos.get(i), targets);
+        }
+        return comparisons;
+    }
+    
+    private AnalysisSnapshot snapshotOf(String sourceRepo, List<RepositoryFacts> repos, List<DependencyInfo> dependencies) {
+        AnalysisSnapshot snapshot = new AnalysisSnapshot();
+        snapshot.setSourceRepo(sourceRepo);
+        snapshot.setSettings(snapshotSettings);
+        for (RepositoryFacts facts : repos) {
+            snapshot.getRepositories().put(facts.getName(), facts.getPath());
+            snapshot.getFiles().put(facts.getName(), facts.getFiles());
+        }
+        snapshot.setDependencies(dependencies);
+        return snapshot;
+    }
+    
+    private static String pairKey(String repo1, String repo2) {
+        return repo1.compareTo(repo2) < 0 ? repo1 + "|" + repo2 : repo2 + "|" + repo1;
+    }
+    
+    /**
+     * Runs every analyzer over already scanned repositories
+     * 
+     * @param comparisons Each source repository mapped to the repositories it is compared with
+     * @param index Inverted index over all scanned repositories
+     */
+    private List<DependencyInfo> compareScanned(Map<RepositoryFacts, Map<String, RepositoryFacts>> comparisons,
+                                                FactIndex index) {
+        List<DependencyInfo> allDependencies = new ArrayList<>();
+        
+        // Only the file analyzer, and plugins by default, use the pruned pairs; see Analyzer.comparesAllPairs()
+        Map<RepositoryFacts, Map<String, RepositoryFacts>> similar = similarComparisons(comparisons, index);
+        Map<String, Set<String>> similarPairs = new LinkedHashMap<>();
+        similar.forEach((source, targets) -> similarPairs.put(source.getName(), targets.keySet()));
+        index.setComparedPairs(similarPairs);
+        
+        List<Analyzer> reporting = reportingAnalyzers();
+        for (int i = 0; i < reporting.size(); i++) {
+            Analyzer analyzer = reporting.get(i);
+            System.out.println("\n[" + (i + 1) + "/" + reporting.size() + "] Analyzing " + analyzer.getName() + " dependencies...");
+            List<DependencyInfo> found = new ArrayList<>();
+            (analyzer.comparesAllPairs() ? comparisons : similar).forEach((source, targets) ->
+                found.addAll(analyzer.analyze(source, targets, index)));
+            found.forEach(dep -> dep.setAnalyzer(analyzer.getClass().getName()));
+            allDependencies.addAll(found);
+            System.out.println("Found " + found.size() + " " + analyzer.getName() + " dependencies");
+        }
+        printSharedInfrastructure(index);
         
         System.out.println("\nTotal dependencies found: " + allDependencies.size());
         
         return allDependencies;
     }
     
+    /**
+     * Analyzers that report dependencies, in reporting order
+     */
+    private List<Analyzer> reportingAnalyzers() {
+        return analyzers.stream().filter(Analyzer::comparesRepositories).collect(Collectors.toList());
+    }
+    
+    /**
+     * Lists the databases, caches, brokers, topics and queues used by more than one
+     * repository, read from the fleet-wide index rather than from the compared pairs
+     */
+    private void printSharedInfrastructure(FactIndex index) {
+        Map<String, List<String>> shared = index.sharedFacts(FactIndex.FactKind.RESOURCE, 2);
+        if (shared.isEmpty()) {
+            return;
+        }
+        System.out.println("\nResources used by more than one repository: " + shared.size());
+        shared.entrySet().stream().limit(MAX_SHARED_RESOURCES_PRINTED).forEach(entry -> System.out.println(
+            "  " + entry.getKey() + " <- " + entry.getValue().size() + " repositories: " + String.join(", ", entry.getValue())));
+    }
+    
+    /**
+     * Drops the pairs whose estimated similarity is below the configured threshold, using
+     * MinHash signatures and locality-sensitive hashing instead of comparing every pair
+     */
+    private Map<RepositoryFacts, Map<String, RepositoryFacts>> similarComparisons(
+            Map<RepositoryFacts, Map<String, RepositoryFacts>> comparisons, FactIndex index) {
+        if (options.getSimilarityThreshold() <= 0) {
+            return comparisons;
+        }
+        
+        Set<String> names = new HashSet<>();
+        comparisons.forEach((source, targets) -> {
+            names.add(source.getName());
+            names.addAll(targets.keySet());
+        });
+        MinHashIndex minHash = new MinHashIndex(index, names, options.getSimilarityThreshold());
+        
+        Map<RepositoryFacts, Map<String, RepositoryFacts>> similar = new LinkedHashMap<>();
+        int total = 0;
+        int kept = 0;
+        for (Map.Entry<RepositoryFacts, Map<String, RepositoryFacts>> entry : comparisons.entrySet()) {
+            Map<String, RepositoryFacts> targets = new LinkedHashMap<>();
+            entry.getValue().forEach((name, target) -> {
+                if (minHash.isCandidate(entry.getKey().getName(), name)) {
+                    targets.put(name, target);
+                }
+            });
+            total += entry.getValue().size();
+            kept += targets.size();
+            if (!targets.isEmpty()) {
+                similar.put(entry.getKey(), targets);
+            }
+        }
+        System.out.println("\nSimilarity pre-pass kept " + kept + " of " + total + " pairs (Jaccard >= "
+            + options.getSimilarityThreshold() + ")");
+        return similar;
+    }
+    
+    /**
+     * Lets every analyzer resolve the facts that span a repository's files, e.g. transitive
+     * library dependencies when enabled, and infrastructure references against the config.
+     * Transitive closures are cached per artifact, so libraries shared across repositories
+     * are expanded once.
+     */
+    private void resolveRepositories(List<RepositoryFacts> repos) {
+        if (options.isTransitive()) {
+            System.out.println("\nResolving transitive dependencies from the local Maven repository...");
+        }
+        List<Callable<RepositoryFacts>> tasks = new ArrayList<>();
+        for (RepositoryFacts repo : repos) {
+            tasks.add(() -> {
+                analyzers.forEach(analyzer -> analyzer.resolve(repo));
+                return repo;
+            });
+        }
+        scanAll(tasks);
+        if (libraryAnalyzer.getMissingArtifactCount() > 0) {
+            System.out.println("Artifacts not found in the local repository: " + libraryAnalyzer.getMissingArtifactCount());
+        }
+    }
+    
+    /**
+     * Runs scan tasks on the configured pool, returning results in task order
+     */
+    private List<RepositoryFacts> scanAll(List<Callable<RepositoryFacts>> tasks) {
+        try (ScanExecutor executor = new ScanExecutor(options.getParallelism(), options.isVirtualThreads())) {
+            return executor.invokeAll(tasks);
+        }
+    }
+    
     /**
      * Discovers repositories in a given directory
      */
@@ -83,11 +448,14 @@ public class DependencyAnalyzer {
         File[] subdirs = baseDir.listFiles(File::isDirectory);
         if (subdirs != null) {
             for (File subdir : subdirs) {
-                // Check if it's a repository (has pom.xml or build.gradle)
-                File pomFile = new File(subdir, "pom.xml");
-                File gradleFile = new File(subdir, "build.gradle");
+                // Check if it's a repository (has a Maven or Gradle build)
+                boolean hasBuild = new File(subdir, "pom.xml").exists()
+                    || new File(subdir, "build.gradle").exists()
+                    || new File(subdir, "build.gradle.kts").exists()
+                    || new File(subdir, "settings.gradle").exists()
+                    || new File(subdir, "settings.gradle.kts").exists();
                 
-                if (pomFile.exists() || gradleFile.exists()) {
+                if (hasBuild) {
                     repositories.put(subdir.getName(), subdir.getAbsolutePath());
                 }
             }
@@ -1,9 +1,12 @@
 package com.dependencyanalyzer;
 
+import com.dependencyanalyzer.model.AnalysisSnapshot;
 import com.dependencyanalyzer.model.DependencyInfo;
+import com.dependencyanalyzer.scanner.ChangeSet;
 import com.dependencyanalyzer.visualization.GraphGenerator;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -29,6 +32,48 @@ public class DependencyAnalyzerMain {
         System.out.println("Output File: " + outputPath);
         System.out.println();
         
+        AnalysisOptions options = AnalysisOptions.fromSystemProperties();
+        DependencyAnalyzer analyzer = new DependencyAnalyzer(options);
+        List<DependencyInfo> dependencies = options.isIncremental() ? analyzeIncremental(analyzer, options) : null;
+        if (dependencies == null) {
+            dependencies = options.isAllPairs()
+                ? analyzeAllPairs(analyzer, reposBasePath)
+                : analyzeSource(analyzer, sourceRepoPath, reposBasePath);
+        }
+        
+        if (options.getSnapshotFile() != null) {
+            try {
+                new SnapshotStore().save(analyzer.getLastSnapshot(), options.getSnapshotFile());
+                System.out.println("Snapshot saved: " + options.getSnapshotFile());
+            } catch (IOException e) {
+                System.err.println("Error saving snapshot: " + e.getMessage());
+            }
+        }
+        
+        if (dependencies.isEmpty()) {
+            System.out.println("\nNo dependencies found between repositories.");
+            return;
+        }
+        
+        // Print summary
+        printSummary(dependencies);
+        
+        // Generate visualization
+        try {
+            GraphGenerator generator = new GraphGenerator();
+            generator.generateGraph(dependencies, outputPath);
+            System.out.println("\n✓ Analysis complete! Open " + outputPath + " in a web browser to view the graph.");
+        } catch (Exception e) {
+            System.err.println("Error generating graph: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Compares the source repository with every other repository in the base path
+     */
+    private static List<DependencyInfo> analyzeSource(DependencyAnalyzer analyzer, String sourceRepoPath, String reposBasePath) {
         // Validate source repository path
         File sourceRepo = new File(sourceRepoPath);
         if (!sourceRepo.exists() || !sourceRepo.isDirectory()) {
@@ -37,7 +82,6 @@ public class DependencyAnalyzerMain {
             System.exit(1);
         }
         
-        DependencyAnalyzer analyzer = new DependencyAnalyzer();
         Map<String, String> otherRepos;
         
         // Discover repositories from base path
@@ -59,28 +103,65 @@ public class DependencyAnalyzerMain {
         System.out.println();
         
         // Perform analysis
-        List<DependencyInfo> dependencies = analyzer.analyzeDependencies(
+        return analyzer.analyzeDependencies(
             sourceRepoPath,
             otherRepos
         );
+    }
+    
+    /**
+     * Compares every repository in the base path with every other one
+     */
+    private static List<DependencyInfo> analyzeAllPairs(DependencyAnalyzer analyzer, String reposBasePath) {
+        System.out.println("Discovering repositories in: " + reposBasePath);
+        Map<String, String> repos = analyzer.discoverRepositories(reposBasePath);
         
-        if (dependencies.isEmpty()) {
-            System.out.println("\nNo dependencies found between repositories.");
-            return;
+        if (repos.size() < 2) {
+            System.err.println("Error: All-pairs mode needs at least two repositories.");
+            System.err.println("Expected to find repositories in: " + reposBasePath);
+            System.exit(1);
         }
         
-        // Print summary
-        printSummary(dependencies);
+        System.out.println("Found " + repos.size() + " repositories:");
+        new TreeSet<>(repos.keySet()).forEach(System.out::println);
+        System.out.println();
+        
+        return analyzer.analyzeAllPairs(repos);
+    }
+    
+    /**
+     * Updates the saved snapshot with the changed files, or returns null when a full run is needed
+     */
+    private static List<DependencyInfo> analyzeIncremental(DependencyAnalyzer analyzer, AnalysisOptions options) {
+        if (!new File(options.getSnapshotFile()).exists()) {
+            System.out.println("No snapshot found at " + options.getSnapshotFile() + ", running a full analysis");
+            return null;
+        }
         
-        // Generate visualization
         try {
-            GraphGenerator generator = new GraphGenerator();
-            generator.generateGraph(dependencies, outputPath);
-            System.out.println("\n✓ Analysis complete! Open " + outputPath + " in a web browser to view the graph.");
-        } catch (Exception e) {
-            System.err.println("Error generating graph: " + e.getMessage());
-            e.printStackTrace();
-            System.exit(1);
+            AnalysisSnapshot snapshot = new SnapshotStore().load(options.getSnapshotFile());
+            if (snapshot.isAllPairs() != options.isAllPairs()) {
+                System.out.println("Snapshot was taken in a different mode, running a full analysis");
+                return null;
+            }
+            if (!analyzer.canUpdate(snapshot)) {
+                System.out.println("Snapshot was taken with other settings, running a full analysis");
+                return null;
+            }
+            
+            ChangeSet changes;
+            if (options.getChangedFiles() != null) {
+                changes = ChangeSet.fromPathList(snapshot.getRepositories(), options.getChangedFiles());
+            } else {
+                String[] range = options.getGitDiff().split("\\.\\.", 2);
+                changes = ChangeSet.fromGitDiff(snapshot.getRepositories(), range[0],
+                    range.length > 1 && !range[1].isEmpty() ? range[1] : null);
+            }
+            return analyzer.analyzeIncremental(snapshot, changes);
+        } catch (IOException e) {
+            System.err.println("Incremental analysis not possible: " + e.getMessage());
+            System.err.println("Running a full analysis instead");
+            return null;
         }
     }
     
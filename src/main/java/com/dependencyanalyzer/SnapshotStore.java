@@ -0,0 +1,42 @@
+package com.dependencyanalyzer;
+
+import com.dependencyanalyzer.model.AnalysisSnapshot;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads and writes analysis snapshots as JSON
+ */
+public class SnapshotStore {
+    
+    private final Gson gson = new Gson();
+    
+    public AnalysisSnapshot load(String snapshotPath) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(snapshotPath), StandardCharsets.UTF_8)) {
+            AnalysisSnapshot snapshot = gson.fromJson(reader, AnalysisSnapshot.class);
+            if (snapshot == null || snapshot.getRepositories().isEmpty()) {
+                throw new IOException("Empty snapshot: " + snapshotPath);
+            }
+            return snapshot;
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid snapshot " + snapshotPath + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public void save(AnalysisSnapshot snapshot, String snapshotPath) throws IOException {
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, writer);
+        }
+    }
+}
+
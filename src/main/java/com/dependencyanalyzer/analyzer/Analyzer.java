@@ -0,0 +1,85 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.index.FactIndex;
+import com.dependencyanalyzer.model.DependencyInfo;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One kind of dependency analysis, plugged into the single walk over each repository.
+ * The scanner hands every file to the analyzers that declared its type, each of them
+ * records what it needs in the file's facts, and repositories are then compared from
+ * those facts alone, so adding an analyzer does not add a walk over the tree.
+ *
+ * Besides the built-in analyzers, implementations listed in
+ * META-INF/services/com.dependencyanalyzer.analyzer.Analyzer of a jar on the classpath
+ * are discovered with {@link java.util.ServiceLoader}. They need a public no-argument
+ * constructor and keep their per-file facts with {@link FileFacts#addCustomFact(String, String)}.
+ */
+public interface Analyzer {
+    
+    /**
+     * What the analyzer looks for, as used in progress output, e.g. "Feign client"
+     */
+    String getName();
+    
+    /**
+     * Extensions of the files to extract facts from, in lower case without the dot,
+     * e.g. "java" or "proto"; an empty set asks for every file
+     */
+    Set<String> getFileTypes();
+    
+    /**
+     * Narrows the files of the declared types by name or location, e.g. to build files only
+     */
+    default boolean accepts(SourceFile file) {
+        return true;
+    }
+    
+    /**
+     * Called before the first scan with the services shared by all analyzers
+     */
+    default void init(AnalyzerContext context) {
+    }
+    
+    /**
+     * Records the facts of one accepted file. Facts are cached between runs, so they
+     * must depend only on the file and the analyzer's settings.
+     */
+    void extract(SourceFile file, FileFacts facts);
+    
+    /**
+     * Called once all files of a repository are extracted, for facts that depend on
+     * several files, e.g. placeholders resolved against the repository's config
+     */
+    default void resolve(RepositoryFacts repo) {
+    }
+    
+    /**
+     * False for analyzers that only supply facts to the others and report nothing themselves
+     */
+    default boolean comparesRepositories() {
+        return true;
+    }
+    
+    /**
+     * True if every pair must be compared, even the ones the similarity pre-pass drops,
+     * e.g. because repositories are matched by service name rather than by overlap
+     */
+    default boolean comparesAllPairs() {
+        return false;
+    }
+    
+    /**
+     * Dependencies between a repository and each of the others
+     *
+     * @param index Inverted index over all scanned repositories
+     */
+    List<DependencyInfo> analyze(RepositoryFacts source, Map<String, RepositoryFacts> otherRepos, FactIndex index);
+}
+
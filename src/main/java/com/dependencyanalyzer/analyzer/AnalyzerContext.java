@@ -0,0 +1,31 @@
+package com.dependencyanalyzer.analyzer;
+
+/**
+ * Services the built-in analyzers share with the ones plugged in, see {@link Analyzer#init(AnalyzerContext)}
+ */
+public class AnalyzerContext {
+    private final JavaSourceParser javaParser;
+    private final ConfigDependencyAnalyzer configAnalyzer;
+    
+    public AnalyzerContext(JavaSourceParser javaParser, ConfigDependencyAnalyzer configAnalyzer) {
+        this.javaParser = javaParser;
+        this.configAnalyzer = configAnalyzer;
+    }
+    
+    /**
+     * Parser whose symbols are cached per file and content, so a Java file is parsed
+     * once however many analyzers read it
+     */
+    public JavaSourceParser getJavaParser() {
+        return javaParser;
+    }
+    
+    /**
+     * Tells which files are config and which of their values apply to the selected
+     * profiles, see {@link ConfigDependencyAnalyzer#effectiveValues}
+     */
+    public ConfigDependencyAnalyzer getConfigAnalyzer() {
+        return configAnalyzer;
+    }
+}
+
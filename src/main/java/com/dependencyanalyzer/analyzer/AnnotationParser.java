@@ -0,0 +1,256 @@
+package com.dependencyanalyzer.analyzer;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-pass tokenizer that finds every use of an annotation in Java source
+ * and returns its attributes. Comments and string literals are skipped, so
+ * commented-out annotations are not reported.
+ */
+public class AnnotationParser {
+    
+    private static final Pattern NAMED_ATTRIBUTE = Pattern.compile(
+        "^\\s*([A-Za-z_$][\\w$]*)\\s*=(?!=)(.*)$",
+        Pattern.DOTALL
+    );
+    
+    /**
+     * Finds every occurrence of an annotation by its simple name, which is case-sensitive as in Java
+     * 
+     * @param content Java source
+     * @param annotationName Simple annotation name without the '@'
+     * @return Attributes of each occurrence in source order. The unnamed attribute is stored as
+     *         "value"; string literals are unquoted and concatenated, array elements are joined
+     *         with ',', anything else (constants, class literals, ${...} placeholders) is kept as written.
+     */
+    public static List<Map<String, String>> parse(String content, String annotationName) {
+        List<Map<String, String>> annotations = new ArrayList<>();
+        String marker = "@" + annotationName;
+        int length = content.length();
+        int i = 0;
+        
+        while (i < length) {
+            char c = content.charAt(i);
+            if (c == '/' && i + 1 < length && (content.charAt(i + 1) == '/' || content.charAt(i + 1) == '*')) {
+                i = skipComment(content, i);
+            } else if (c == '"' || c == '\'') {
+                i = skipLiteral(content, i);
+            } else if (c == '@' && content.regionMatches(i, marker, 0, marker.length())
+                    && !isIdentifierPart(content, i + marker.length())) {
+                Map<String, String> attributes = new LinkedHashMap<>();
+                int next = skipWhitespace(content, i + marker.length());
+                if (next < length && content.charAt(next) == '(') {
+                    next = parseArguments(content, next + 1, attributes);
+                }
+                annotations.add(attributes);
+                i = next;
+            } else {
+                i++;
+            }
+        }
+        
+        return annotations;
+    }
+    
+    /**
+     * Splits the argument list at top-level commas, starting just after the opening parenthesis
+     * 
+     * @return Index just after the closing parenthesis
+     */
+    private static int parseArguments(String content, int start, Map<String, String> attributes) {
+        int length = content.length();
+        int depth = 0;
+        int elementStart = start;
+        int i = start;
+        
+        while (i < length) {
+            char c = content.charAt(i);
+            if (c == '/' && i + 1 < length && (content.charAt(i + 1) == '/' || content.charAt(i + 1) == '*')) {
+                i = skipComment(content, i);
+            } else if (c == '"' || c == '\'') {
+                i = skipLiteral(content, i);
+            } else if (c == '(' || c == '{' || c == '[') {
+                depth++;
+                i++;
+            } else if (c == ')' && depth == 0) {
+                addAttribute(content.substring(elementStart, i), attributes);
+                return i + 1;
+            } else if (c == ')' || c == '}' || c == ']') {
+                depth--;
+                i++;
+            } else if (c == ',' && depth == 0) {
+                addAttribute(content.substring(elementStart, i), attributes);
+                elementStart = ++i;
+            } else {
+                i++;
+            }
+        }
+        
+        // Unterminated argument list
+        addAttribute(content.substring(elementStart), attributes);
+        return length;
+    }
+    
+    private static void addAttribute(String element, Map<String, String> attributes) {
+        if (element.trim().isEmpty()) {
+            return;
+        }
+        
+        Matcher matcher = NAMED_ATTRIBUTE.matcher(element);
+        if (matcher.matches()) {
+            attributes.put(matcher.group(1), evaluate(matcher.group(2)));
+        } else {
+            attributes.put("value", evaluate(element));
+        }
+    }
+    
+    /**
+     * Evaluates an attribute value as far as it can be done without compiling the source
+     */
+    private static String evaluate(String expression) {
+        String expr = expression.trim();
+        
+        if (expr.startsWith("{") && expr.endsWith("}")) {
+            List<String> elements = new ArrayList<>();
+            String inner = expr.substring(1, expr.length() - 1);
+            int depth = 0;
+            int elementStart = 0;
+            for (int i = 0; i < inner.length(); i++) {
+                char c = inner.charAt(i);
+                if (c == '"' || c == '\'') {
+                    i = skipLiteral(inner, i) - 1;
+                } else if (c == '(' || c == '{' || c == '[') {
+                    depth++;
+                } else if (c == ')' || c == '}' || c == ']') {
+                    depth--;
+                } else if (c == ',' && depth == 0) {
+                    elements.add(inner.substring(elementStart, i));
+                    elementStart = i + 1;
+                }
+            }
+            elements.add(inner.substring(elementStart));
+            
+            StringJoiner joined = new StringJoiner(",");
+            for (String element : elements) {
+                if (!element.trim().isEmpty()) {
+                    joined.add(evaluate(element));
+                }
+            }
+            return joined.toString();
+        }
+        
+        String concatenated = concatenateLiterals(expr);
+        return concatenated != null ? concatenated : expr;
+    }
+    
+    /**
+     * Joins "a" + "b" style string literal concatenations, or returns null for anything else
+     */
+    private static String concatenateLiterals(String expr) {
+        StringBuilder value = new StringBuilder();
+        int length = expr.length();
+        int i = skipWhitespace(expr, 0);
+        if (i >= length) {
+            return null;
+        }
+        
+        while (i < length) {
+            if (expr.charAt(i) != '"') {
+                return null;
+            }
+            i++;
+            while (i < length && expr.charAt(i) != '"') {
+                char c = expr.charAt(i);
+                if (c == '\\' && i + 1 < length) {
+                    char escaped = expr.charAt(++i);
+                    switch (escaped) {
+                        case 'n': value.append('\n'); break;
+                        case 't': value.append('\t'); break;
+                        case 'r': value.append('\r'); break;
+                        default: value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+                i++;
+            }
+            if (i >= length) {
+                return null;
+            }
+            
+            i = skipWhitespace(expr, i + 1);
+            if (i < length) {
+                if (expr.charAt(i) != '+') {
+                    return null;
+                }
+                i = skipWhitespace(expr, i + 1);
+            }
+        }
+        
+        return value.toString();
+    }
+    
+    /**
+     * Skips a // or block comment starting at the given index
+     */
+    private static int skipComment(String content, int start) {
+        if (content.charAt(start + 1) == '/') {
+            int end = content.indexOf('\n', start);
+            return end < 0 ? content.length() : end + 1;
+        }
+        int end = content.indexOf("*/", start + 2);
+        return end < 0 ? content.length() : end + 2;
+    }
+    
+    /**
+     * Skips a string, text block or char literal starting at the given index
+     */
+    private static int skipLiteral(String content, int start) {
+        int length = content.length();
+        char quote = content.charAt(start);
+        
+        if (quote == '"' && content.startsWith("\"\"\"", start)) {
+            int i = start + 3;
+            while (i < length) {
+                if (content.charAt(i) == '\\') {
+                    i += 2;
+                } else if (content.startsWith("\"\"\"", i)) {
+                    return i + 3;
+                } else {
+                    i++;
+                }
+            }
+            return length;
+        }
+        
+        int i = start + 1;
+        while (i < length) {
+            char c = content.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n') {
+                return i; // Unterminated literal, resume on the next line
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+    
+    private static int skipWhitespace(String content, int start) {
+        int i = start;
+        while (i < content.length() && Character.isWhitespace(content.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static boolean isIdentifierPart(String content, int index) {
+        return index < content.length() && Character.isJavaIdentifierPart(content.charAt(index));
+    }
+}
+
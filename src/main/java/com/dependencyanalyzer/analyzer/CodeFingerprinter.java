@@ -0,0 +1,152 @@
+package com.dependencyanalyzer.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Winnowing fingerprints of Java source, fed one line at a time. The source is split
+ * into tokens (comments and whitespace dropped, literals kept whole), every run of
+ * {@link #SHINGLE_SIZE} tokens is hashed with a rolling hash, and of every
+ * {@link #WINDOW_SIZE} consecutive shingle hashes the smallest is kept. Two files that
+ * share a run of at least SHINGLE_SIZE + WINDOW_SIZE - 1 tokens share a fingerprint.
+ */
+public class CodeFingerprinter {
+    
+    static final int SHINGLE_SIZE = 5;
+    static final int WINDOW_SIZE = 4;
+    
+    private static final int BASE = 31;
+    // BASE ^ (SHINGLE_SIZE - 1), to drop the oldest token from the rolling hash
+    private static final int BASE_POWER;
+    
+    static {
+        int power = 1;
+        for (int i = 1; i < SHINGLE_SIZE; i++) {
+            power *= BASE;
+        }
+        BASE_POWER = power;
+    }
+    
+    private boolean inBlockComment;
+    
+    private final int[] tokens = new int[SHINGLE_SIZE];
+    private int tokenCount;
+    private int shingleHash;
+    
+    private final int[] window = new int[WINDOW_SIZE];
+    private int shingleCount;
+    private int selected = -1; // Position of the last fingerprint taken
+    
+    private int[] fingerprints = new int[64];
+    private int fingerprintCount;
+    
+    /**
+     * Tokenizes one line of source
+     */
+    public void addLine(String line) {
+        int i = 0;
+        int length = line.length();
+        while (i < length) {
+            if (inBlockComment) {
+                int end = line.indexOf("*/", i);
+                if (end < 0) {
+                    return;
+                }
+                inBlockComment = false;
+                i = end + 2;
+                continue;
+            }
+            
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (line.startsWith("//", i)) {
+                return;
+            } else if (line.startsWith("/*", i)) {
+                inBlockComment = true;
+                i += 2;
+            } else if (Character.isJavaIdentifierStart(c) || Character.isDigit(c)) {
+                int start = i;
+                while (i < length && (Character.isJavaIdentifierPart(line.charAt(i)) || line.charAt(i) == '.')) {
+                    i++;
+                }
+                addToken(line.substring(start, i).hashCode());
+            } else if (c == '"' || c == '\'') {
+                int start = i++;
+                while (i < length && line.charAt(i) != c) {
+                    i += line.charAt(i) == '\\' ? 2 : 1;
+                }
+                i = Math.min(length, i + 1);
+                addToken(line.substring(start, i).hashCode());
+            } else {
+                addToken(c);
+                i++;
+            }
+        }
+    }
+    
+    /**
+     * Distinct fingerprints of everything added so far, ascending
+     */
+    public int[] fingerprints() {
+        int[] result = Arrays.copyOf(fingerprints, fingerprintCount);
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+    
+    private void addToken(int token) {
+        token = mix(token);
+        int slot = tokenCount % SHINGLE_SIZE;
+        if (tokenCount >= SHINGLE_SIZE) {
+            shingleHash -= tokens[slot] * BASE_POWER;
+        }
+        shingleHash = shingleHash * BASE + token;
+        tokens[slot] = token;
+        tokenCount++;
+        if (tokenCount >= SHINGLE_SIZE) {
+            addShingle(mix(shingleHash));
+        }
+    }
+    
+    /**
+     * Winnowing: keeps the minimum of each window, the rightmost one on ties, and
+     * records it once even when it stays the minimum of later windows
+     */
+    private void addShingle(int hash) {
+        window[shingleCount % WINDOW_SIZE] = hash;
+        shingleCount++;
+        if (shingleCount < WINDOW_SIZE) {
+            return;
+        }
+        
+        int first = shingleCount - WINDOW_SIZE;
+        int minimum = first;
+        for (int position = first + 1; position < shingleCount; position++) {
+            if (window[position % WINDOW_SIZE] <= window[minimum % WINDOW_SIZE]) {
+                minimum = position;
+            }
+        }
+        if (minimum != selected) {
+            selected = minimum;
+            if (fingerprintCount == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, fingerprintCount * 2);
+            }
+            fingerprints[fingerprintCount++] = window[minimum % WINDOW_SIZE];
+        }
+    }
+    
+    private static int mix(int value) {
+        value ^= value >>> 16;
+        value *= 0x85EBCA6B;
+        value ^= value >>> 13;
+        value *= 0xC2B2AE35;
+        value ^= value >>> 16;
+        return value;
+    }
+}
+
@@ -1,84 +1,97 @@
 package com.dependencyanalyzer.analyzer;
 
+import com.dependencyanalyzer.index.FactIndex;
 import com.dependencyanalyzer.model.DependencyInfo;
-import org.apache.commons.io.FileUtils;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
- * Analyzes common configuration files and database dependencies
+ * Analyzes common configuration files, config keys and shared infrastructure
  */
-public class ConfigDependencyAnalyzer {
+public class ConfigDependencyAnalyzer implements Analyzer {
     
     private static final Set<String> CONFIG_EXTENSIONS = Set.of("yml", "yaml", "properties", "xml");
-    private static final Set<String> CONFIG_PATHS = Set.of(
-        "src/main/resources/application.yml",
-        "src/main/resources/application.yaml",
-        "src/main/resources/application.properties",
-        "src/main/resources/bootstrap.yml",
-        "src/main/resources/bootstrap.properties"
-    );
+    private static final Set<String> SPRING_CONFIG_EXTENSIONS = Set.of("yml", "yaml", "properties");
+    private static final Set<String> MANIFEST_EXTENSIONS = Set.of("yml", "yaml");
+    // Directories as seen from a parent path with a leading '/', in any module
+    private static final String RESOURCES_DIR = "/src/main/resources";
+    private static final String CONFIG_DIR = "/config";
+    private static final String TEST_DIR = "/src/test/";
+    // Directories where Kubernetes manifests are usually kept, matched as any path segment
+    private static final Set<String> MANIFEST_DIRS = Set.of(
+        "k8s", "kubernetes", "kube", "deploy", "deployment", "deployments",
+        "helm", "charts", "manifests", "kustomize", "openshift");
+    private static final byte[] CONFIG_MAP_MARKER = "ConfigMap".getBytes(StandardCharsets.US_ASCII);
+    
+    private Set<String> profiles = Collections.emptySet();
+    
+    @Override
+    public String getName() {
+        return "configuration";
+    }
+    
+    @Override
+    public Set<String> getFileTypes() {
+        return CONFIG_EXTENSIONS;
+    }
+    
+    /**
+     * Repositories sharing a database or topic need not share any code, so pairs the
+     * similarity pre-pass drops are still compared; the lookups are cheap index queries
+     */
+    @Override
+    public boolean comparesAllPairs() {
+        return true;
+    }
     
     /**
      * Analyzes common configuration dependencies
      */
-    public List<DependencyInfo> analyzeConfigDependencies(String repoPath, Map<String, String> otherRepos) {
+    @Override
+    public List<DependencyInfo> analyze(RepositoryFacts source, Map<String, RepositoryFacts> otherRepos, FactIndex index) {
         List<DependencyInfo> dependencies = new ArrayList<>();
         
         try {
-            // Extract config structure from source repository
-            Map<String, Set<String>> sourceConfigs = extractConfigStructure(repoPath);
-            Map<String, String> sourceDbConfigs = extractDatabaseConfigs(repoPath);
+            // Look up config files, keys and infrastructure shared with each repository
+            Map<String, Integer> sharedConfigs = index.overlapCounts(
+                FactIndex.FactKind.CONFIG_FILE, source, otherRepos.keySet());
+            Map<String, Set<String>> sharedKeys = index.commonFacts(
+                FactIndex.FactKind.CONFIG_KEY, source, otherRepos.keySet());
+            Map<String, Set<String>> sharedResources = index.commonFacts(
+                FactIndex.FactKind.RESOURCE, source, otherRepos.keySet());
             
             // Compare with other repositories
-            for (Map.Entry<String, String> entry : otherRepos.entrySet()) {
+            for (Map.Entry<String, RepositoryFacts> entry : otherRepos.entrySet()) {
                 String repoName = entry.getKey();
-                String repoPath2 = entry.getValue();
-                
-                Map<String, Set<String>> targetConfigs = extractConfigStructure(repoPath2);
-                Map<String, String> targetDbConfigs = extractDatabaseConfigs(repoPath2);
                 
                 // Find common config files
-                Set<String> commonConfigs = new HashSet<>(sourceConfigs.keySet());
-                commonConfigs.retainAll(targetConfigs.keySet());
+                int commonConfigs = sharedConfigs.getOrDefault(repoName, 0);
                 
-                // Find common config keys/values
+                // Find common config keys/values (only keys of the same config file are compared)
                 Set<String> commonKeys = new HashSet<>();
-                for (String configFile : commonConfigs) {
-                    Set<String> sourceKeys = sourceConfigs.get(configFile);
-                    Set<String> targetKeys = targetConfigs.get(configFile);
-                    if (sourceKeys != null && targetKeys != null) {
-                        Set<String> keys = new HashSet<>(sourceKeys);
-                        keys.retainAll(targetKeys);
-                        commonKeys.addAll(keys);
-                    }
-                }
+                sharedKeys.getOrDefault(repoName, Collections.emptySet())
+                    .forEach(fact -> commonKeys.add(FactIndex.configKeyName(fact)));
                 
-                // Find common database configurations
-                Set<String> commonDbConfigs = new HashSet<>();
-                for (Map.Entry<String, String> dbEntry : sourceDbConfigs.entrySet()) {
-                    String key = dbEntry.getKey();
-                    String value = dbEntry.getValue();
-                    if (targetDbConfigs.containsKey(key) && 
-                        targetDbConfigs.get(key).equals(value)) {
-                        commonDbConfigs.add(key + "=" + value);
-                    }
-                }
+                // Find shared databases, caches and brokers
+                Set<String> commonResources = new TreeSet<>(sharedResources.getOrDefault(repoName, Collections.emptySet()));
                 
-                if (!commonConfigs.isEmpty() || !commonKeys.isEmpty() || !commonDbConfigs.isEmpty()) {
+                if (commonConfigs > 0 || !commonKeys.isEmpty() || !commonResources.isEmpty()) {
                     DependencyInfo depInfo = new DependencyInfo(
-                        getRepoName(repoPath),
+                        source.getName(),
                         repoName,
                         DependencyInfo.DependencyType.SHARED_CONFIG,
                         "Common configuration detected"
                     );
                     
-                    if (!commonConfigs.isEmpty()) {
-                        depInfo.addDetail("Common config files: " + commonConfigs.size());
-                        commonConfigs.stream().limit(3).forEach(depInfo::addDetail);
+                    if (commonConfigs > 0) {
+                        depInfo.addDetail("Common config files: " + commonConfigs);
+                        index.sampleCommonFacts(FactIndex.FactKind.CONFIG_FILE, source, repoName, 3)
+                            .forEach(depInfo::addDetail);
                     }
                     
                     if (!commonKeys.isEmpty()) {
@@ -86,16 +99,18 @@ public class ConfigDependencyAnalyzer {
                         commonKeys.stream().limit(5).forEach(depInfo::addDetail);
                     }
                     
-                    if (!commonDbConfigs.isEmpty()) {
-                        depInfo.addDetail("Common database configs: " + commonDbConfigs.size());
-                        commonDbConfigs.stream().limit(3).forEach(depInfo::addDetail);
+                    // Only facts of the pair, so that an incremental run can keep the pairs that did not change;
+                    // how many repositories use a resource is listed once per run instead
+                    if (!commonResources.isEmpty()) {
+                        depInfo.addDetail("Shared infrastructure: " + commonResources.size());
+                        commonResources.stream().limit(5).forEach(depInfo::addDetail);
                     }
                     
                     // Calculate strength
                     int strength = 4; // Base for config similarity
-                    if (commonConfigs.size() > 0) strength += 2;
+                    if (commonConfigs > 0) strength += 2;
                     if (commonKeys.size() > 5) strength += 2;
-                    if (commonDbConfigs.size() > 0) strength += 2; // Database configs indicate strong coupling
+                    if (!commonResources.isEmpty()) strength += 2; // Shared databases and brokers indicate strong coupling
                     depInfo.setStrength(Math.min(10, strength));
                     
                     dependencies.add(depInfo);
@@ -110,123 +125,132 @@ public class ConfigDependencyAnalyzer {
     }
     
     /**
-     * Extracts configuration file structure
+     * Sets the Spring profiles whose config is analyzed on top of the default one
      */
-    private Map<String, Set<String>> extractConfigStructure(String repoPath) throws IOException {
-        Map<String, Set<String>> configs = new HashMap<>();
-        File repoDir = new File(repoPath);
-        
-        if (!repoDir.exists() || !repoDir.isDirectory()) {
-            return configs;
-        }
-        
-        File resourcesDir = new File(repoDir, "src/main/resources");
-        if (!resourcesDir.exists()) {
-            return configs;
+    public void setProfiles(Collection<String> profiles) {
+        this.profiles = new HashSet<>(profiles);
+    }
+    
+    /**
+     * Accepts configuration files in any module: everything directly under
+     * src/main/resources, YAML and properties files below it or in a config/ directory,
+     * and YAML files in deployment directories such as k8s/ or helm/ that may be
+     * Kubernetes ConfigMaps. Test resources are skipped.
+     */
+    @Override
+    public boolean accepts(SourceFile file) {
+        String extension = file.getExtension();
+        String parentPath = "/" + file.getParentPath();
+        if (!CONFIG_EXTENSIONS.contains(extension) || parentPath.contains(TEST_DIR)) {
+            return false;
         }
-        
-        Collection<File> configFiles = FileUtils.listFiles(
-            resourcesDir,
-            new String[]{"yml", "yaml", "properties", "xml"},
-            false
-        );
-        
-        for (File file : configFiles) {
-            try {
-                String relativePath = "src/main/resources/" + file.getName();
-                Set<String> keys = extractConfigKeys(file);
-                configs.put(relativePath, keys);
-            } catch (Exception e) {
-                // Skip files that can't be read
+        return parentPath.endsWith(RESOURCES_DIR)
+            || isConfigLocation(parentPath) && SPRING_CONFIG_EXTENSIONS.contains(extension)
+            || MANIFEST_EXTENSIONS.contains(extension) && isManifestLocation(parentPath);
+    }
+    
+    private boolean isManifestLocation(String parentPath) {
+        for (String segment : parentPath.split("/")) {
+            if (MANIFEST_DIRS.contains(segment.toLowerCase(Locale.ROOT))) {
+                return true;
             }
         }
-        
-        return configs;
+        return false;
+    }
+    
+    private boolean isConfigLocation(String parentPath) {
+        return parentPath.contains(RESOURCES_DIR + "/") || parentPath.endsWith(CONFIG_DIR);
     }
     
     /**
-     * Extracts configuration keys from a file
+     * Extracts configuration keys and values from a config file. Keys of profile-specific
+     * documents are recorded as "key [profile]", and only for the selected profiles;
+     * profile files of other profiles are listed but never read.
      */
-    private Set<String> extractConfigKeys(File file) throws IOException {
-        Set<String> keys = new HashSet<>();
-        List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
-                continue;
+    @Override
+    public void extract(SourceFile file, FileFacts facts) {
+        try {
+            if (!isConfig(file)) {
+                return; // A YAML file that is not a ConfigMap
+            }
+            facts.setConfigFile(true);
+            if (!isSelectedFile(file)) {
+                return;
             }
             
-            // Extract key (before = or :)
-            int separatorIndex = Math.max(line.indexOf('='), line.indexOf(':'));
-            if (separatorIndex > 0) {
-                String key = line.substring(0, separatorIndex).trim();
-                if (!key.isEmpty()) {
-                    keys.add(key);
+            ConfigParser.ConfigProperties properties = ConfigParser.parse(file);
+            for (int i = 0; i < properties.size(); i++) {
+                String profile = properties.getProfile(i);
+                if (profile == null) {
+                    facts.addConfigKey(properties.getKey(i));
+                } else if (isSelected(profile)) {
+                    facts.addConfigKey(properties.getKey(i) + " [" + profile + "]");
                 }
             }
+            if (SPRING_CONFIG_EXTENSIONS.contains(file.getExtension())) {
+                effectiveValues(properties).forEach(facts::putConfigValue);
+            }
+        } catch (Exception e) {
+            // Skip files that can't be read
         }
-        
-        return keys;
     }
     
     /**
-     * Extracts database configuration
+     * Values a Spring config file sets: those of the default profile, overridden by the
+     * selected profiles as in Spring. Empty for other files and unselected profiles.
      */
-    private Map<String, String> extractDatabaseConfigs(String repoPath) throws IOException {
-        Map<String, String> dbConfigs = new HashMap<>();
-        File repoDir = new File(repoPath);
-        
-        File resourcesDir = new File(repoDir, "src/main/resources");
-        if (!resourcesDir.exists()) {
-            return dbConfigs;
+    public Map<String, String> effectiveValues(SourceFile file) throws IOException {
+        if (!SPRING_CONFIG_EXTENSIONS.contains(file.getExtension()) || !isConfig(file) || !isSelectedFile(file)) {
+            return Collections.emptyMap();
         }
-        
-        Collection<File> configFiles = FileUtils.listFiles(
-            resourcesDir,
-            new String[]{"yml", "yaml", "properties"},
-            false
-        );
-        
-        for (File file : configFiles) {
-            try {
-                List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
-                for (String line : lines) {
-                    line = line.trim().toLowerCase();
-                    if (line.contains("datasource") || line.contains("database") || 
-                        line.contains("jdbc") || line.contains("mysql") || 
-                        line.contains("redis") || line.contains("mongodb")) {
-                        // Extract key-value pairs
-                        if (line.contains("url:") || line.contains("url=")) {
-                            dbConfigs.put("db_url", extractValue(line));
-                        }
-                        if (line.contains("username:") || line.contains("username=")) {
-                            dbConfigs.put("db_username", extractValue(line));
-                        }
-                        if (line.contains("driver:") || line.contains("driver=")) {
-                            dbConfigs.put("db_driver", extractValue(line));
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // Skip files that can't be read
+        return effectiveValues(ConfigParser.parse(file));
+    }
+    
+    private Map<String, String> effectiveValues(ConfigParser.ConfigProperties properties) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.getProfile(i) == null) {
+                values.put(properties.getKey(i), properties.getValue(i));
             }
         }
-        
-        return dbConfigs;
+        for (int i = 0; i < properties.size(); i++) {
+            if (properties.getProfile(i) != null && isSelected(properties.getProfile(i))) {
+                values.put(properties.getKey(i), properties.getValue(i));
+            }
+        }
+        return values;
     }
     
-    private String extractValue(String line) {
-        int separatorIndex = Math.max(line.indexOf('='), line.indexOf(':'));
-        if (separatorIndex > 0 && separatorIndex < line.length() - 1) {
-            return line.substring(separatorIndex + 1).trim();
-        }
-        return "";
+    /**
+     * Whether an accepted file is config: YAML files in deployment directories only
+     * count when they hold a ConfigMap
+     */
+    private boolean isConfig(SourceFile file) throws IOException {
+        String parentPath = "/" + file.getParentPath();
+        return parentPath.endsWith(RESOURCES_DIR) || isConfigLocation(parentPath) || file.containsAny(CONFIG_MAP_MARKER);
+    }
+    
+    /**
+     * Whether a file applies without a profile or to a selected one
+     */
+    private boolean isSelectedFile(SourceFile file) {
+        String fileProfile = ConfigParser.profileOf(file.getFileName());
+        return fileProfile == null || isSelected(fileProfile);
     }
     
-    private String getRepoName(String repoPath) {
-        File file = new File(repoPath);
-        return file.getName();
+    /**
+     * Whether a profile, or one of a comma-separated list of them, is selected
+     */
+    private boolean isSelected(String profile) {
+        if (profiles.isEmpty()) {
+            return false;
+        }
+        for (String name : profile.split(",")) {
+            if (profiles.contains(name.trim())) {
+                return true;
+            }
+        }
+        return false;
     }
 }
 
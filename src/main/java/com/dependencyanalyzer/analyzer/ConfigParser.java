@@ -0,0 +1,610 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.scanner.SourceFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming parser for configuration files: YAML (including multi-document files),
+ * .properties and XML. Values are emitted under their fully qualified dotted keys, the
+ * way Spring flattens them: nested YAML keys are joined with '.', list items get an
+ * index (spring.cloud.gateway.routes[0].uri), and XML elements are joined by name,
+ * with attributes as element[@attribute].
+ *
+ * Every document is attributed to a profile: the one it activates with
+ * spring.config.activate.on-profile (or the older spring.profiles), else the one in the
+ * file name (application-dev.yml). Kubernetes ConfigMaps are read as the config they
+ * carry rather than as manifests. A file is parsed once per scan; the analyzers share
+ * the result through {@link SourceFile#derive}.
+ */
+public class ConfigParser {
+    
+    private static final Pattern PROFILE_FILE_PATTERN = Pattern.compile("(?:application|bootstrap)-(.+)\\.(?:yml|yaml|properties)");
+    private static final List<String> PROFILE_KEYS = Arrays.asList("spring.config.activate.on-profile", "spring.profiles");
+    private static final String CONFIG_MAP_DATA = "data.";
+    private static final Set<String> CONFIG_MAP_FILE_EXTENSIONS = Set.of("yml", "yaml", "properties");
+    
+    /**
+     * Entries of a config file, empty if it cannot be read
+     */
+    public static ConfigProperties parse(SourceFile file) {
+        return file.derive(ConfigProperties.class, ConfigParser::read);
+    }
+    
+    /**
+     * Profile a file belongs to by its name, e.g. "dev" for application-dev.yml, or null
+     */
+    public static String profileOf(String fileName) {
+        Matcher matcher = PROFILE_FILE_PATTERN.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+    
+    private static ConfigProperties read(SourceFile file) {
+        Collector out = new Collector(profileOf(file.getFileName()));
+        try {
+            if (file.getExtension().equals("xml")) {
+                readXml(file.getBytes(), out);
+            } else {
+                try (BufferedReader reader = file.openReader()) {
+                    read(file.getExtension(), reader, out);
+                }
+            }
+        } catch (IOException | XMLStreamException e) {
+            // Keep what was read up to the error
+        }
+        out.endDocument();
+        return out.build();
+    }
+    
+    private static void read(String extension, BufferedReader reader, Collector out) throws IOException {
+        switch (extension) {
+            case "yml":
+            case "yaml":
+                new YamlReader(reader, out).read();
+                break;
+            case "properties":
+                readProperties(reader, out);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Entries of a parsed config file in file order, in parallel arrays
+     */
+    public static class ConfigProperties {
+        private final String[] keys;
+        private final String[] values;
+        private final String[] profiles;
+        
+        ConfigProperties(String[] keys, String[] values, String[] profiles) {
+            this.keys = keys;
+            this.values = values;
+            this.profiles = profiles;
+        }
+        
+        public int size() {
+            return keys.length;
+        }
+        
+        public String getKey(int entry) {
+            return keys[entry];
+        }
+        
+        public String getValue(int entry) {
+            return values[entry];
+        }
+        
+        /**
+         * Profile of the document the entry is in, or null if it applies without one
+         */
+        public String getProfile(int entry) {
+            return profiles[entry];
+        }
+        
+        /**
+         * Values that apply without a profile; later documents override earlier ones
+         */
+        public Map<String, String> defaultValues() {
+            Map<String, String> result = new LinkedHashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (profiles[i] == null) {
+                    result.put(keys[i], values[i]);
+                }
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Collects entries and assigns each finished document its profile
+     */
+    private static class Collector {
+        private final String fileProfile;
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<String> profiles = new ArrayList<>();
+        private int documentStart;
+        private String documentProfile;
+        
+        Collector(String fileProfile) {
+            this.fileProfile = fileProfile;
+        }
+        
+        void add(String key, String value) {
+            keys.add(key);
+            values.add(value);
+            if (PROFILE_KEYS.contains(key) && !value.isEmpty()) {
+                documentProfile = value;
+            }
+        }
+        
+        void endDocument() {
+            String kind = documentValue("kind");
+            if (kind != null && documentValue("apiVersion") != null) {
+                // A Kubernetes manifest: only ConfigMaps carry config
+                Map<String, String> data = kind.equals("ConfigMap") ? configMapData() : Collections.emptyMap();
+                keys.subList(documentStart, keys.size()).clear();
+                values.subList(documentStart, values.size()).clear();
+                data.forEach(this::addConfigMapEntry);
+            } else {
+                String profile = documentProfile != null ? documentProfile : fileProfile;
+                for (int i = documentStart; i < keys.size(); i++) {
+                    profiles.add(profile);
+                }
+            }
+            documentStart = keys.size();
+            documentProfile = null;
+        }
+        
+        private String documentValue(String key) {
+            for (int i = documentStart; i < keys.size(); i++) {
+                if (keys.get(i).equals(key)) {
+                    return values.get(i);
+                }
+            }
+            return null;
+        }
+        
+        private Map<String, String> configMapData() {
+            Map<String, String> data = new LinkedHashMap<>();
+            for (int i = documentStart; i < keys.size(); i++) {
+                if (keys.get(i).startsWith(CONFIG_MAP_DATA)) {
+                    data.put(keys.get(i).substring(CONFIG_MAP_DATA.length()), values.get(i));
+                }
+            }
+            return data;
+        }
+        
+        /**
+         * Adds one data entry of a ConfigMap. Entries named like a config file
+         * (application-prod.yml: |) are parsed as one; the others are a key and its value.
+         */
+        private void addConfigMapEntry(String name, String value) {
+            String extension = name.substring(name.lastIndexOf('.') + 1);
+            if (name.contains(".") && CONFIG_MAP_FILE_EXTENSIONS.contains(extension)) {
+                Collector embedded = new Collector(profileOf(name));
+                try (BufferedReader reader = new BufferedReader(new StringReader(value))) {
+                    read(extension, reader, embedded);
+                } catch (IOException e) {
+                    // Not thrown by a StringReader
+                }
+                embedded.endDocument();
+                keys.addAll(embedded.keys);
+                values.addAll(embedded.values);
+                profiles.addAll(embedded.profiles);
+            } else {
+                keys.add(name);
+                values.add(value);
+                profiles.add(fileProfile);
+            }
+        }
+        
+        ConfigProperties build() {
+            return new ConfigProperties(keys.toArray(new String[0]), values.toArray(new String[0]),
+                profiles.toArray(new String[0]));
+        }
+    }
+    
+    /**
+     * Block-style YAML, one line at a time. Open mappings and sequences are kept on a
+     * stack by indentation; flow collections ({...}, [...]) are kept as written.
+     * Anchors, aliases and multi-line plain scalars are not followed.
+     */
+    private static class YamlReader {
+        private final BufferedReader reader;
+        private final Collector out;
+        private final Deque<Node> nodes = new ArrayDeque<>();
+        // A line read ahead by a block scalar that belongs to the next entry
+        private String pending;
+        
+        YamlReader(BufferedReader reader, Collector out) {
+            this.reader = reader;
+            this.out = out;
+        }
+        
+        void read() throws IOException {
+            String line;
+            while ((line = nextLine()) != null) {
+                String content = line.trim();
+                if (content.isEmpty() || content.startsWith("#") || content.startsWith("%")) {
+                    continue;
+                }
+                if (content.equals("---") || content.startsWith("--- ") || content.equals("...")) {
+                    out.endDocument();
+                    nodes.clear();
+                    continue;
+                }
+                
+                int indent = 0;
+                while (indent < line.length() && (line.charAt(indent) == ' ' || line.charAt(indent) == '\t')) {
+                    indent++;
+                }
+                if (isSequenceItem(content)) {
+                    sequenceItem(indent, content);
+                } else {
+                    mappingEntry(indent, content);
+                }
+            }
+        }
+        
+        private String nextLine() throws IOException {
+            if (pending != null) {
+                String line = pending;
+                pending = null;
+                return line;
+            }
+            return reader.readLine();
+        }
+        
+        private void mappingEntry(int indent, String content) throws IOException {
+            int separator = keySeparator(content);
+            if (separator <= 0) {
+                return; // Continuation of a multi-line scalar
+            }
+            String key = scalar(content.substring(0, separator).trim());
+            String value = stripComment(content.substring(separator + 1).trim());
+            
+            while (!nodes.isEmpty() && nodes.peek().indent >= indent) {
+                nodes.pop();
+            }
+            String path = nodes.isEmpty() ? key : nodes.peek().path + "." + key;
+            if (key.equals("<<")) {
+                return; // Merge keys refer to anchors
+            }
+            if (value.isEmpty()) {
+                nodes.push(new Node(indent, path, false));
+            } else if (value.startsWith("|") || value.startsWith(">")) {
+                out.add(path, blockScalar(indent, value.startsWith("|")));
+            } else {
+                out.add(path, scalar(value));
+            }
+        }
+        
+        /**
+         * A "- " entry at the given column. Its parent is the innermost open mapping key or
+         * item that starts left of it, or at the same column for the compact style where
+         * the dashes line up with the key.
+         */
+        private void sequenceItem(int indent, String content) throws IOException {
+            while (!nodes.isEmpty() && (nodes.peek().indent > indent || nodes.peek().indent == indent && nodes.peek().item)) {
+                nodes.pop();
+            }
+            if (nodes.isEmpty()) {
+                return; // A top-level sequence has no key
+            }
+            Node parent = nodes.peek();
+            String path = parent.path + "[" + parent.items++ + "]";
+            
+            String rest = content.substring(1);
+            int restIndent = indent + 1 + (rest.length() - rest.trim().length());
+            rest = stripComment(rest.trim());
+            if (rest.isEmpty()) {
+                nodes.push(new Node(indent, path, true));
+            } else if (isSequenceItem(rest)) {
+                nodes.push(new Node(indent, path, true));
+                sequenceItem(restIndent, rest);
+            } else if (rest.startsWith("|") || rest.startsWith(">")) {
+                out.add(path, blockScalar(indent, rest.startsWith("|")));
+            } else if (keySeparator(rest) > 0) {
+                nodes.push(new Node(indent, path, true));
+                mappingEntry(restIndent, rest);
+            } else {
+                out.add(path, scalar(rest));
+            }
+        }
+        
+        /**
+         * Reads the lines indented past the owning key; literal (|) scalars keep their
+         * line breaks, folded (>) ones join lines with spaces
+         */
+        private String blockScalar(int ownerIndent, boolean literal) throws IOException {
+            StringBuilder text = new StringBuilder();
+            int blockIndent = -1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    text.append('\n');
+                    continue;
+                }
+                int indent = 0;
+                while (indent < line.length() && line.charAt(indent) == ' ') {
+                    indent++;
+                }
+                if (indent <= ownerIndent) {
+                    pending = line;
+                    break;
+                }
+                if (blockIndent < 0) {
+                    blockIndent = indent;
+                }
+                if (text.length() > 0 && !literal && text.charAt(text.length() - 1) == '\n') {
+                    text.setCharAt(text.length() - 1, ' ');
+                }
+                text.append(line.substring(Math.min(blockIndent, indent))).append('\n');
+            }
+            return text.toString().trim();
+        }
+        
+        private static boolean isSequenceItem(String content) {
+            return content.equals("-") || content.startsWith("- ") || content.startsWith("-\t");
+        }
+        
+        /**
+         * Position of the ':' that ends a mapping key, or -1. The key may be quoted; the
+         * ':' must be followed by whitespace or end the line, so URLs are not split.
+         */
+        private static int keySeparator(String content) {
+            int from = 0;
+            char first = content.charAt(0);
+            if (first == '"' || first == '\'') {
+                from = closingQuote(content, first) + 1;
+                if (from <= 0) {
+                    return -1;
+                }
+            } else if (first == '{' || first == '[') {
+                return -1;
+            }
+            for (int i = from; i < content.length(); i++) {
+                if (content.charAt(i) == ':' && (i + 1 == content.length() || Character.isWhitespace(content.charAt(i + 1)))) {
+                    return i;
+                }
+                if (content.charAt(i) == '#' && i > 0 && Character.isWhitespace(content.charAt(i - 1))) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Drops a trailing comment; in a quoted scalar, everything after the closing quote
+         */
+        private static String stripComment(String value) {
+            if (value.startsWith("#")) {
+                return "";
+            }
+            if (value.startsWith("\"") || value.startsWith("'")) {
+                int end = closingQuote(value, value.charAt(0));
+                return end > 0 ? value.substring(0, end + 1) : value;
+            }
+            for (int i = 1; i < value.length(); i++) {
+                if (value.charAt(i) == '#' && Character.isWhitespace(value.charAt(i - 1))) {
+                    return value.substring(0, i).trim();
+                }
+            }
+            return value;
+        }
+        
+        private static int closingQuote(String value, char quote) {
+            for (int i = 1; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (quote == '"' && c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    if (quote == '\'' && i + 1 < value.length() && value.charAt(i + 1) == '\'') {
+                        i++; // '' is an escaped quote
+                    } else {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Value of a scalar: quotes removed and escapes resolved, a leading tag such as
+         * !!str dropped
+         */
+        private static String scalar(String value) {
+            if (value.startsWith("!")) {
+                int space = value.indexOf(' ');
+                value = space > 0 ? value.substring(space + 1).trim() : "";
+            }
+            if (value.length() >= 2 && value.startsWith("'") && value.endsWith("'")) {
+                return value.substring(1, value.length() - 1).replace("''", "'");
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                return unescape(value.substring(1, value.length() - 1));
+            }
+            return value;
+        }
+    }
+    
+    // One open mapping key or sequence item
+    private static class Node {
+        final int indent;
+        final String path;
+        final boolean item;
+        int items;
+        
+        Node(int indent, String path, boolean item) {
+            this.indent = indent;
+            this.path = path;
+            this.item = item;
+        }
+    }
+    
+    /**
+     * java.util.Properties syntax: continuation lines, '=', ':' or whitespace as the
+     * separator, and escapes. A "#---" line starts a new document, as in Spring Boot.
+     */
+    private static void readProperties(BufferedReader reader, Collector out) throws IOException {
+        StringBuilder logical = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String content = line.trim();
+            if (logical.length() == 0) {
+                if (content.equals("#---") || content.equals("!---")) {
+                    out.endDocument();
+                    continue;
+                }
+                if (content.isEmpty() || content.startsWith("#") || content.startsWith("!")) {
+                    continue;
+                }
+            }
+            
+            int backslashes = 0;
+            while (backslashes < content.length() && content.charAt(content.length() - 1 - backslashes) == '\\') {
+                backslashes++;
+            }
+            if (backslashes % 2 == 1) {
+                logical.append(content, 0, content.length() - 1);
+                continue;
+            }
+            logical.append(content);
+            property(logical.toString(), out);
+            logical.setLength(0);
+        }
+        if (logical.length() > 0) {
+            property(logical.toString(), out);
+        }
+    }
+    
+    private static void property(String line, Collector out) {
+        int end = 0;
+        while (end < line.length()) {
+            char c = line.charAt(end);
+            if (c == '\\') {
+                end += 2;
+                continue;
+            }
+            if (c == '=' || c == ':' || Character.isWhitespace(c)) {
+                break;
+            }
+            end++;
+        }
+        end = Math.min(end, line.length());
+        
+        int start = end;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (start < line.length() && (line.charAt(start) == '=' || line.charAt(start) == ':')) {
+            start++;
+        }
+        String key = unescape(line.substring(0, end));
+        if (!key.isEmpty()) {
+            out.add(key, unescape(line.substring(start).trim()));
+        }
+    }
+    
+    private static void readXml(byte[] content, Collector out) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(new ByteArrayInputStream(content));
+        try {
+            Deque<String> paths = new ArrayDeque<>();
+            Deque<StringBuilder> texts = new ArrayDeque<>();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String path = paths.isEmpty() ? reader.getLocalName() : paths.peek() + "." + reader.getLocalName();
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            out.add(path + "[@" + reader.getAttributeLocalName(i) + "]", reader.getAttributeValue(i));
+                        }
+                        paths.push(path);
+                        texts.push(new StringBuilder());
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if (!texts.isEmpty()) {
+                            texts.peek().append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        String text = texts.pop().toString().trim();
+                        String elementPath = paths.pop();
+                        if (!text.isEmpty()) {
+                            out.add(elementPath, text);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Resolves backslash escapes as in double-quoted YAML and .properties files
+     */
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                result.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            switch (escaped) {
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                case 'f':
+                    result.append('\f');
+                    break;
+                case 'u':
+                    if (i + 4 < value.length()) {
+                        try {
+                            result.append((char) Integer.parseInt(value.substring(i + 1, i + 5), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException e) {
+                            // Not an escape, keep as written
+                        }
+                    }
+                    result.append(escaped);
+                    break;
+                default:
+                    result.append(escaped);
+                    break;
+            }
+        }
+        return result.toString();
+    }
+}
+
@@ -1,51 +1,82 @@
 package com.dependencyanalyzer.analyzer;
 
+import com.dependencyanalyzer.index.FactIndex;
 import com.dependencyanalyzer.model.DependencyInfo;
-import org.apache.commons.io.FileUtils;
+import com.dependencyanalyzer.model.FeignClientDefinition;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
 
-import java.io.File;
-import java.io.IOException;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Analyzes Feign client dependencies between repositories
  */
-public class FeignClientAnalyzer {
+public class FeignClientAnalyzer implements Analyzer {
     
-    private static final Pattern FEIGN_CLIENT_PATTERN = Pattern.compile(
-        "@FeignClient\\s*\\([^)]*name\\s*=\\s*[\"']([^\"']+)[\"']",
-        Pattern.CASE_INSENSITIVE
-    );
+    // Searched for in the raw bytes, so files without a Feign client are never decoded
+    private static final byte[] FEIGN_CLIENT_MARKER = "@FeignClient".getBytes(StandardCharsets.US_ASCII);
+    private static final Set<String> JAVA_FILE_TYPES = Set.of("java");
     
-    private static final Pattern FEIGN_CLIENT_URL_PATTERN = Pattern.compile(
-        "@FeignClient\\s*\\([^)]*url\\s*=\\s*[\"']([^\"']+)[\"']",
-        Pattern.CASE_INSENSITIVE
-    );
+    private final JavaSourceParser parser;
     
-    private static final Pattern FEIGN_CLIENT_VALUE_PATTERN = Pattern.compile(
-        "@FeignClient\\s*\\([\"']([^\"']+)[\"']",
-        Pattern.CASE_INSENSITIVE
-    );
+    // Resolved calls of each repository, valid for the index they were resolved against
+    private FactIndex callsIndex;
+    private final Map<String, Map<String, List<String>>> callsByRepository = new HashMap<>();
+    
+    public FeignClientAnalyzer() {
+        this(new JavaSourceParser());
+    }
     
     /**
-     * Analyzes Feign client dependencies
+     * @param parser Java parser, shared with the other analyzers of a scan
      */
-    public List<DependencyInfo> analyzeFeignClients(String repoPath, Map<String, String> otherRepos) {
+    public FeignClientAnalyzer(JavaSourceParser parser) {
+        this.parser = parser;
+    }
+    
+    @Override
+    public String getName() {
+        return "Feign client";
+    }
+    
+    @Override
+    public Set<String> getFileTypes() {
+        return JAVA_FILE_TYPES;
+    }
+    
+    /**
+     * Clients are resolved by service name, so pairs with little overlap still call each other
+     */
+    @Override
+    public boolean comparesAllPairs() {
+        return true;
+    }
+    
+    /**
+     * Analyzes Feign client dependencies. Clients that resolve to another repository's
+     * spring.application.name become caller-to-callee edges, in either direction;
+     * clients declared by both repositories are reported as shared.
+     */
+    @Override
+    public List<DependencyInfo> analyze(RepositoryFacts source, Map<String, RepositoryFacts> otherRepos, FactIndex index) {
         List<DependencyInfo> dependencies = new ArrayList<>();
         
         try {
             // Extract Feign clients from source repository
-            Map<String, Set<String>> sourceFeignClients = extractFeignClients(repoPath);
+            Map<String, Set<String>> sourceFeignClients = source.getFeignClients();
+            Map<String, List<String>> sourceCalls = serviceCalls(source, index);
+            Set<String> sourceUrls = new HashSet<>();
+            sourceFeignClients.values().forEach(sourceUrls::addAll);
             
             // Compare with other repositories
-            for (Map.Entry<String, String> entry : otherRepos.entrySet()) {
+            for (Map.Entry<String, RepositoryFacts> entry : otherRepos.entrySet()) {
                 String repoName = entry.getKey();
-                String repoPath2 = entry.getValue();
-                
-                Map<String, Set<String>> targetFeignClients = extractFeignClients(repoPath2);
+                RepositoryFacts target = entry.getValue();
+                Map<String, Set<String>> targetFeignClients = target.getFeignClients();
                 
                 // Find common Feign client names
                 Set<String> commonClients = new HashSet<>();
@@ -56,43 +87,59 @@ public class FeignClientAnalyzer {
                 }
                 
                 // Also check for similar URLs
-                Set<String> sourceUrls = new HashSet<>();
-                sourceFeignClients.values().forEach(sourceUrls::addAll);
-                
                 Set<String> targetUrls = new HashSet<>();
                 targetFeignClients.values().forEach(targetUrls::addAll);
                 
                 Set<String> commonUrls = new HashSet<>(sourceUrls);
                 commonUrls.retainAll(targetUrls);
                 
+                // Calls from the source to the target
+                DependencyInfo depInfo = null;
+                List<String> outgoingCalls = sourceCalls.getOrDefault(repoName, Collections.emptyList());
+                if (!outgoingCalls.isEmpty()) {
+                    depInfo = serviceCallDependency(source.getName(), repoName, outgoingCalls);
+                }
+                
                 if (!commonClients.isEmpty() || !commonUrls.isEmpty()) {
-                    DependencyInfo depInfo = new DependencyInfo(
-                        getRepoName(repoPath),
-                        repoName,
-                        DependencyInfo.DependencyType.FEIGN_CLIENT,
-                        "Common Feign clients detected"
-                    );
+                    if (depInfo == null) {
+                        depInfo = new DependencyInfo(
+                            source.getName(),
+                            repoName,
+                            DependencyInfo.DependencyType.FEIGN_CLIENT,
+                            "Common Feign clients detected"
+                        );
+                    }
                     
                     if (!commonClients.isEmpty()) {
                         depInfo.addDetail("Common Feign client names: " + commonClients.size());
-                        commonClients.forEach(client -> {
+                        for (String client : commonClients) {
                             depInfo.addDetail("Client: " + client);
-                        });
-                        depInfo.setStrength(8); // Feign clients indicate strong coupling
+                        }
+                        // Feign clients indicate strong coupling
+                        depInfo.setStrength(Math.max(8, depInfo.getStrength()));
                     }
                     
                     if (!commonUrls.isEmpty()) {
                         depInfo.addDetail("Common service URLs: " + commonUrls.size());
-                        commonUrls.stream().limit(3).forEach(url -> {
+                        for (String url : commonUrls.stream().limit(3).collect(Collectors.toList())) {
                             depInfo.addDetail("URL: " + url);
-                        });
+                        }
                         if (depInfo.getStrength() < 8) {
                             depInfo.setStrength(6);
                         }
                     }
-                    
+                }
+                
+                if (depInfo != null) {
                     dependencies.add(depInfo);
                 }
+                
+                // Calls from the target back to the source
+                List<String> incomingCalls = serviceCalls(target, index)
+                    .getOrDefault(source.getName(), Collections.emptyList());
+                if (!incomingCalls.isEmpty()) {
+                    dependencies.add(serviceCallDependency(repoName, source.getName(), incomingCalls));
+                }
             }
         } catch (Exception e) {
             System.err.println("Error analyzing Feign clients: " + e.getMessage());
@@ -103,83 +150,104 @@ public class FeignClientAnalyzer {
     }
     
     /**
-     * Extracts Feign client information from repository
+     * The calls of a repository, resolved once per run: every repository is a target of
+     * many sources, and its clients resolve the same way for each of them
      */
-    private Map<String, Set<String>> extractFeignClients(String repoPath) throws IOException {
-        Map<String, Set<String>> feignClients = new HashMap<>();
-        File repoDir = new File(repoPath);
-        
-        if (!repoDir.exists() || !repoDir.isDirectory()) {
-            return feignClients;
+    private synchronized Map<String, List<String>> serviceCalls(RepositoryFacts caller, FactIndex index) {
+        if (index != callsIndex) {
+            callsByRepository.clear();
+            callsIndex = index;
         }
+        return callsByRepository.computeIfAbsent(caller.getName(), name -> resolveServiceCalls(caller, index));
+    }
+    
+    /**
+     * Resolves a repository's Feign clients to the repositories they call. The client
+     * name, or failing that the URL host, is matched against spring.application.name
+     * after ${...} placeholders are resolved against the caller's own config.
+     * 
+     * @return Called repository names mapped to one detail line per client
+     */
+    private Map<String, List<String>> resolveServiceCalls(RepositoryFacts caller, FactIndex index) {
+        Map<String, List<String>> calls = new LinkedHashMap<>();
+        Map<String, String> config = caller.getConfigValues();
         
-        Collection<File> javaFiles = FileUtils.listFiles(
-            repoDir,
-            new String[]{"java"},
-            true
-        );
-        
-        for (File file : javaFiles) {
-            try {
-                String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
-                
-                if (content.contains("@FeignClient") || content.contains("@feignclient")) {
-                    // Extract client name
-                    String clientName = extractFeignClientName(content);
-                    if (clientName != null && !clientName.isEmpty()) {
-                        Set<String> urls = feignClients.getOrDefault(clientName, new HashSet<>());
-                        
-                        // Extract URL if present
-                        String url = extractFeignClientUrl(content);
-                        if (url != null && !url.isEmpty()) {
-                            urls.add(url);
-                        }
-                        
-                        feignClients.put(clientName, urls);
-                    }
+        for (FeignClientDefinition client : caller.getFeignClientDefinitions()) {
+            String name = PlaceholderResolver.resolve(client.getName(), config);
+            String url = PlaceholderResolver.resolve(client.getUrl(), config);
+            
+            List<String> callees = index.repositoriesWith(FactIndex.FactKind.APPLICATION_NAME, name);
+            if (callees.isEmpty()) {
+                String host = hostOf(url);
+                if (host != null) {
+                    callees = index.repositoriesWith(FactIndex.FactKind.APPLICATION_NAME, host);
+                }
+            }
+            
+            String detail = "Calls: " + name + (url != null && !url.isEmpty() ? " (" + url + ")" : "");
+            for (String callee : callees) {
+                if (!callee.equals(caller.getName())) {
+                    calls.computeIfAbsent(callee, k -> new ArrayList<>()).add(detail);
                 }
-            } catch (Exception e) {
-                // Skip files that can't be read
             }
         }
         
-        return feignClients;
+        return calls;
     }
     
-    /**
-     * Extracts Feign client name from content
-     */
-    private String extractFeignClientName(String content) {
-        // Try name attribute first
-        Matcher matcher = FEIGN_CLIENT_PATTERN.matcher(content);
-        if (matcher.find()) {
-            return matcher.group(1);
+    private DependencyInfo serviceCallDependency(String caller, String callee, List<String> calls) {
+        DependencyInfo depInfo = new DependencyInfo(
+            caller,
+            callee,
+            DependencyInfo.DependencyType.FEIGN_CLIENT,
+            "Calls " + callee + " through Feign clients"
+        );
+        depInfo.addDetail("Resolved service calls: " + calls.size());
+        calls.forEach(depInfo::addDetail);
+        depInfo.setStrength(9); // A direct runtime call is the strongest coupling
+        return depInfo;
+    }
+    
+    private String hostOf(String url) {
+        if (url == null || url.isEmpty() || PlaceholderResolver.isUnresolved(url)) {
+            return null;
         }
-        
-        // Try value attribute
-        matcher = FEIGN_CLIENT_VALUE_PATTERN.matcher(content);
-        if (matcher.find()) {
-            return matcher.group(1);
+        try {
+            return URI.create(url.contains("://") ? url : "http://" + url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        
-        return null;
+    }
+    
+    @Override
+    public boolean accepts(SourceFile file) {
+        return file.getExtension().equals("java");
     }
     
     /**
-     * Extracts Feign client URL from content
+     * Extracts every Feign client interface declared in a Java file, with all of its
+     * attributes. Files that do not parse are scanned for the annotation instead.
      */
-    private String extractFeignClientUrl(String content) {
-        Matcher matcher = FEIGN_CLIENT_URL_PATTERN.matcher(content);
-        if (matcher.find()) {
-            return matcher.group(1);
+    @Override
+    public void extract(SourceFile file, FileFacts facts) {
+        try {
+            if (!file.containsAny(FEIGN_CLIENT_MARKER)) {
+                return;
+            }
+            
+            JavaSourceParser.JavaSymbols symbols = parser.symbols(file);
+            List<Map<String, String>> annotations = symbols != null
+                ? symbols.getTypeAnnotations("FeignClient")
+                : AnnotationParser.parse(file.getContent(), "FeignClient");
+            for (Map<String, String> attributes : annotations) {
+                FeignClientDefinition client = new FeignClientDefinition(attributes);
+                if (client.getName() != null && !client.getName().isEmpty()) {
+                    facts.addFeignClient(client);
+                }
+            }
+        } catch (Exception e) {
+            // Skip files that can't be read
         }
-        
-        return null;
-    }
-    
-    private String getRepoName(String repoPath) {
-        File file = new File(repoPath);
-        return file.getName();
     }
 }
 
@@ -1,94 +1,161 @@
 package com.dependencyanalyzer.analyzer;
 
+import com.dependencyanalyzer.index.FactIndex;
+import com.dependencyanalyzer.index.NearDuplicateIndex;
 import com.dependencyanalyzer.model.DependencyInfo;
-import org.apache.commons.io.FileUtils;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.BufferedReader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Analyzes common files and imports between repositories
  */
-public class FileDependencyAnalyzer {
+public class FileDependencyAnalyzer implements Analyzer {
     
     private static final Set<String> JAVA_EXTENSIONS = Set.of("java", "kt", "groovy", "scala");
     private static final Pattern IMPORT_PATTERN = Pattern.compile("^import\\s+([^;]+);");
     private static final Pattern PACKAGE_PATTERN = Pattern.compile("^package\\s+([^;]+);");
+    // A fully qualified type name in code, e.g. org.springframework.http.HttpStatus.OK
+    private static final Pattern QUALIFIED_TYPE_PATTERN = Pattern.compile("\\b[a-z][a-z0-9_]*\\.(?:[a-z][a-z0-9_]*\\.)+[A-Z]");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    // Files with fewer non-blank lines (besides the package line) get no content hash
+    private static final int MIN_HASHED_LINES = 5;
+    private static final Pattern TYPE_DECLARATION_PATTERN = Pattern.compile(
+        "^(?:(?:public|protected|private|abstract|static|final|sealed|non-sealed|strictfp)\\s+)*" +
+        "(?:class|interface|enum|record|@interface)\\b"
+    );
+    
+    private final JavaSourceParser parser;
+    private double nearDuplicateThreshold;
+    
+    public FileDependencyAnalyzer() {
+        this(new JavaSourceParser());
+    }
+    
+    /**
+     * @param parser Java parser, shared with the other analyzers of a scan
+     */
+    public FileDependencyAnalyzer(JavaSourceParser parser) {
+        this.parser = parser;
+    }
+    
+    /**
+     * Minimum similarity of two Java files to report them as near-duplicates (0, the
+     * default, disables near-duplicate detection and the fingerprinting it needs)
+     */
+    public void setNearDuplicateThreshold(double nearDuplicateThreshold) {
+        this.nearDuplicateThreshold = nearDuplicateThreshold;
+    }
+    
+    @Override
+    public String getName() {
+        return "file and import";
+    }
+    
+    @Override
+    public Set<String> getFileTypes() {
+        return JAVA_EXTENSIONS;
+    }
     
     /**
      * Analyzes common files and imports between repositories
      */
-    public List<DependencyInfo> analyzeFileDependencies(String repoPath, Map<String, String> otherRepos) {
+    @Override
+    public List<DependencyInfo> analyze(RepositoryFacts source, Map<String, RepositoryFacts> otherRepos, FactIndex index) {
         List<DependencyInfo> dependencies = new ArrayList<>();
         
         try {
-            // Extract file structure and imports from source repository
-            Map<String, Set<String>> sourceFiles = extractFileStructure(repoPath);
-            Set<String> sourceImports = extractImports(repoPath);
-            Set<String> sourcePackages = extractPackages(repoPath);
+            // Count file paths, imports and packages shared with each repository
+            Map<String, Integer> sharedFiles = index.overlapCounts(
+                FactIndex.FactKind.FILE_PATH, source, otherRepos.keySet());
+            Map<String, Integer> sharedImports = index.overlapCounts(
+                FactIndex.FactKind.IMPORT, source, otherRepos.keySet());
+            Map<String, Integer> sharedPackages = index.overlapCounts(
+                FactIndex.FactKind.PACKAGE, source, otherRepos.keySet());
+            Map<String, Integer> sharedContents = index.overlapCounts(
+                FactIndex.FactKind.CONTENT_HASH, source, otherRepos.keySet());
+            NearDuplicateIndex nearDuplicates = nearDuplicateThreshold > 0
+                ? index.nearDuplicates(nearDuplicateThreshold)
+                : null;
             
             // Compare with other repositories
-            for (Map.Entry<String, String> entry : otherRepos.entrySet()) {
-                String repoName = entry.getKey();
-                String repoPath2 = entry.getValue();
-                
-                Map<String, Set<String>> targetFiles = extractFileStructure(repoPath2);
-                Set<String> targetImports = extractImports(repoPath2);
-                Set<String> targetPackages = extractPackages(repoPath2);
-                
+            for (String repoName : otherRepos.keySet()) {
                 // Find common file paths
-                Set<String> commonFiles = new HashSet<>(sourceFiles.keySet());
-                commonFiles.retainAll(targetFiles.keySet());
+                int commonFiles = sharedFiles.getOrDefault(repoName, 0);
                 
                 // Find common imports
-                Set<String> commonImports = new HashSet<>(sourceImports);
-                commonImports.retainAll(targetImports);
+                int commonImports = sharedImports.getOrDefault(repoName, 0);
                 
                 // Find common packages
-                Set<String> commonPackages = new HashSet<>(sourcePackages);
-                commonPackages.retainAll(targetPackages);
+                int commonPackages = sharedPackages.getOrDefault(repoName, 0);
+                
+                // Find files with the same content, wherever they are
+                int duplicatedFiles = sharedContents.getOrDefault(repoName, 0);
                 
-                if (!commonFiles.isEmpty() || !commonImports.isEmpty() || !commonPackages.isEmpty()) {
+                // Find files that were copied and then edited
+                List<NearDuplicateIndex.FilePair> similarFiles = nearDuplicates != null
+                    ? nearDuplicates.between(source.getName(), repoName)
+                    : Collections.emptyList();
+                
+                if (commonFiles > 0 || commonImports > 0 || commonPackages > 0 || duplicatedFiles > 0
+                    || !similarFiles.isEmpty()) {
                     DependencyInfo depInfo = new DependencyInfo(
-                        getRepoName(repoPath),
+                        source.getName(),
                         repoName,
                         DependencyInfo.DependencyType.COMMON_FILE,
                         "Common files/imports detected"
                     );
                     
-                    if (!commonFiles.isEmpty()) {
-                        depInfo.addDetail("Common file paths: " + commonFiles.size());
-                        commonFiles.stream().limit(5).forEach(depInfo::addDetail);
+                    // Only the listed examples are looked up as strings
+                    if (duplicatedFiles > 0) {
+                        depInfo.addDetail("Duplicated files: " + duplicatedFiles);
+                        List<String> hashes = index.sampleCommonFacts(
+                            FactIndex.FactKind.CONTENT_HASH, source, repoName, 5);
+                        duplicateDetails(source, otherRepos.get(repoName), hashes).forEach(depInfo::addDetail);
+                    }
+                    
+                    if (!similarFiles.isEmpty()) {
+                        depInfo.addDetail("Near-duplicate files: " + similarFiles.size());
+                        similarFiles.stream().limit(5).forEach(pair -> depInfo.addDetail(
+                            pair.getSourcePath() + " ~ " + pair.getTargetPath()
+                                + " (" + Math.round(pair.getSimilarity() * 100) + "%)"));
                     }
                     
-                    if (!commonImports.isEmpty()) {
-                        depInfo.addDetail("Common imports: " + commonImports.size());
-                        commonImports.stream()
+                    if (commonFiles > 0) {
+                        depInfo.addDetail("Common file paths: " + commonFiles);
+                        index.sampleCommonFacts(FactIndex.FactKind.FILE_PATH, source, repoName, 5)
+                            .forEach(depInfo::addDetail);
+                    }
+                    
+                    if (commonImports > 0) {
+                        depInfo.addDetail("Common imports: " + commonImports);
+                        index.sampleCommonFacts(FactIndex.FactKind.IMPORT, source, repoName, 5).stream()
                             .filter(imp -> !imp.startsWith("java.") && !imp.startsWith("javax."))
-                            .limit(5)
                             .forEach(depInfo::addDetail);
                     }
                     
-                    if (!commonPackages.isEmpty()) {
-                        depInfo.addDetail("Common packages: " + commonPackages.size());
-                        commonPackages.stream().limit(5).forEach(depInfo::addDetail);
+                    if (commonPackages > 0) {
+                        depInfo.addDetail("Common packages: " + commonPackages);
+                        index.sampleCommonFacts(FactIndex.FactKind.PACKAGE, source, repoName, 5)
+                            .forEach(depInfo::addDetail);
                     }
                     
                     // Calculate strength based on findings
                     // Weak dependencies (strength < 5) for minimal matches
                     int strength = 2; // Base strength for any match
-                    if (commonFiles.size() > 0) strength += 2;
-                    if (commonImports.size() > 5) strength += 3;
-                    else if (commonImports.size() > 0) strength += 1; // Weak if only a few imports
-                    if (commonPackages.size() > 0) strength += 2;
+                    if (commonFiles > 0) strength += 2;
+                    if (commonImports > 5) strength += 3;
+                    else if (commonImports > 0) strength += 1; // Weak if only a few imports
+                    if (commonPackages > 0) strength += 2;
+                    if (duplicatedFiles > 0) strength += 3; // Copied code, not just shared structure
+                    else if (!similarFiles.isEmpty()) strength += 2;
                     depInfo.setStrength(Math.min(10, strength));
                     
                     dependencies.add(depInfo);
@@ -103,115 +170,133 @@ public class FileDependencyAnalyzer {
     }
     
     /**
-     * Extracts file structure from repository
+     * Describes duplicated files by their path in both repositories
+     * 
+     * @param hashes Content hashes present in both repositories
      */
-    private Map<String, Set<String>> extractFileStructure(String repoPath) throws IOException {
-        Map<String, Set<String>> fileStructure = new HashMap<>();
-        File repoDir = new File(repoPath);
-        
-        if (!repoDir.exists() || !repoDir.isDirectory()) {
-            return fileStructure;
-        }
+    private List<String> duplicateDetails(RepositoryFacts source, RepositoryFacts target, List<String> hashes) {
+        Map<String, String> sourcePaths = pathsByHash(source, hashes);
+        Map<String, String> targetPaths = pathsByHash(target, hashes);
         
-        try (Stream<Path> paths = Files.walk(Paths.get(repoPath))) {
-            paths.filter(Files::isRegularFile)
-                .filter(path -> {
-                    String fileName = path.getFileName().toString();
-                    String ext = fileName.contains(".") 
-                        ? fileName.substring(fileName.lastIndexOf(".") + 1) 
-                        : "";
-                    return JAVA_EXTENSIONS.contains(ext.toLowerCase());
-                })
-                .forEach(path -> {
-                    try {
-                        Path relativePath = Paths.get(repoPath).relativize(path);
-                        String relativePathStr = relativePath.toString().replace("\\", "/");
-                        fileStructure.put(relativePathStr, new HashSet<>());
-                    } catch (Exception e) {
-                        // Skip if path resolution fails
-                    }
-                });
+        List<String> details = new ArrayList<>();
+        for (String hash : hashes) {
+            String sourcePath = sourcePaths.get(hash);
+            String targetPath = targetPaths.get(hash);
+            details.add(sourcePath.equals(targetPath) ? sourcePath : sourcePath + " = " + targetPath);
         }
-        
-        return fileStructure;
+        return details;
     }
     
     /**
-     * Extracts import statements from Java files
+     * First file path (in path order) holding each of the given content hashes
      */
-    private Set<String> extractImports(String repoPath) throws IOException {
-        Set<String> imports = new HashSet<>();
-        File repoDir = new File(repoPath);
-        
-        if (!repoDir.exists() || !repoDir.isDirectory()) {
-            return imports;
-        }
-        
-        Collection<File> javaFiles = FileUtils.listFiles(
-            repoDir,
-            new String[]{"java"},
-            true
-        );
-        
-        for (File file : javaFiles) {
-            try {
-                List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
-                for (String line : lines) {
-                    line = line.trim();
-                    if (line.startsWith("import ")) {
-                        String importStmt = line.substring(7).replace(";", "").trim();
-                        if (!importStmt.startsWith("java.") && !importStmt.startsWith("javax.")) {
-                            imports.add(importStmt);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // Skip files that can't be read
+    private Map<String, String> pathsByHash(RepositoryFacts repo, List<String> hashes) {
+        Set<String> wanted = new HashSet<>(hashes);
+        Map<String, String> paths = new HashMap<>();
+        repo.getFiles().forEach((path, facts) -> {
+            if (wanted.contains(facts.getContentHash())) {
+                paths.putIfAbsent(facts.getContentHash(), path);
             }
-        }
-        
-        return imports;
+        });
+        return paths;
     }
     
     /**
-     * Extracts package declarations from Java files
+     * Accepts source files of any JVM language; only Java files are read
      */
-    private Set<String> extractPackages(String repoPath) throws IOException {
-        Set<String> packages = new HashSet<>();
-        File repoDir = new File(repoPath);
-        
-        if (!repoDir.exists() || !repoDir.isDirectory()) {
-            return packages;
-        }
-        
-        Collection<File> javaFiles = FileUtils.listFiles(
-            repoDir,
-            new String[]{"java"},
-            true
-        );
+    @Override
+    public boolean accepts(SourceFile file) {
+        return JAVA_EXTENSIONS.contains(file.getExtension().toLowerCase());
+    }
+    
+    /**
+     * Records the file path, extracts the package declaration and imports of Java files,
+     * hashes the normalized content and, when near-duplicate detection is on, fingerprints
+     * Java code. Package and imports come from the header, but the content hash and the
+     * search for fully qualified types need the body, so the whole file is read line by line
+     * rather than stopping at the first type declaration. Java files are loaded into memory
+     * first, since the Feign client and infrastructure analyzers search them afterwards;
+     * other files are streamed. Java files whose code uses fully qualified types are parsed
+     * as well, and their imports are replaced by the types the syntax tree references.
+     */
+    @Override
+    public void extract(SourceFile file, FileFacts facts) {
+        facts.setSourceFile(true);
+        boolean java = file.getExtension().equals("java");
+        boolean needsSymbols = false;
         
-        for (File file : javaFiles) {
-            try {
-                List<String> lines = FileUtils.readLines(file, StandardCharsets.UTF_8);
-                for (String line : lines) {
-                    line = line.trim();
-                    if (line.startsWith("package ")) {
-                        String packageName = line.substring(8).replace(";", "").trim();
-                        packages.add(packageName);
-                        break; // Only first package declaration
+        try (BufferedReader reader = java ? new BufferedReader(new StringReader(file.getContent())) : file.openReader()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            CodeFingerprinter fingerprinter = java && nearDuplicateThreshold > 0 ? new CodeFingerprinter() : null;
+            int hashedLines = 0;
+            boolean inHeader = java;
+            boolean inComment = false;
+            boolean packageFound = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (inHeader && inComment) {
+                    inComment = !line.contains("*/"); // Commented-out imports are not imports
+                } else if (inHeader && line.startsWith("/*")) {
+                    inComment = !line.contains("*/");
+                } else if (inHeader && TYPE_DECLARATION_PATTERN.matcher(line).lookingAt()) {
+                    inHeader = false; // Package and imports always precede the first type
+                } else if (inHeader && line.startsWith("import ")) {
+                    String importStmt = line.substring(7).replace(";", "").trim();
+                    if (importStmt.startsWith("static ")) {
+                        // The class a static member is imported from
+                        importStmt = importStmt.substring(7).trim();
+                        importStmt = importStmt.substring(0, Math.max(0, importStmt.lastIndexOf('.')));
+                    }
+                    if (!importStmt.startsWith("java.") && !importStmt.startsWith("javax.")) {
+                        facts.addImport(importStmt);
                     }
+                } else if (inHeader && !packageFound && line.startsWith("package ")) {
+                    String packageName = line.substring(8).replace(";", "").trim();
+                    facts.setPackageName(packageName);
+                    packageFound = true; // Only first package declaration
+                } else if (java && !inHeader && !needsSymbols && line.indexOf('.') >= 0) {
+                    needsSymbols = QUALIFIED_TYPE_PATTERN.matcher(line).find();
+                }
+                
+                // A class copied into another package only differs in its package line
+                if (line.isEmpty() || line.startsWith("package ")) {
+                    continue;
+                }
+                if (fingerprinter != null && !line.startsWith("import ")) {
+                    fingerprinter.addLine(line);
                 }
-            } catch (Exception e) {
-                // Skip files that can't be read
+                digest.update(WHITESPACE_PATTERN.matcher(line).replaceAll(" ").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+                hashedLines++;
             }
+            
+            // Tiny files (package-info.java, empty marker classes) are alike by accident
+            if (hashedLines >= MIN_HASHED_LINES) {
+                facts.setContentHash(toHex(digest.digest()));
+            }
+            if (fingerprinter != null && hashedLines >= MIN_HASHED_LINES) {
+                facts.setFingerprints(fingerprinter.fingerprints());
+            }
+        } catch (Exception e) {
+            // Skip files that can't be read
         }
         
-        return packages;
+        // Parsing is far slower than the line scan, so it is only done where it adds something
+        JavaSourceParser.JavaSymbols symbols = needsSymbols ? parser.symbols(file) : null;
+        if (symbols != null) {
+            facts.setPackageName(symbols.getPackageName());
+            facts.getImports().clear();
+            symbols.getReferencedTypes().forEach(facts::addImport);
+        }
     }
     
-    private String getRepoName(String repoPath) {
-        File file = new File(repoPath);
-        return file.getName();
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
     }
 }
 
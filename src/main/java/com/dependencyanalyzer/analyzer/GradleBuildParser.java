@@ -0,0 +1,528 @@
+package com.dependencyanalyzer.analyzer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads dependencies from Gradle build scripts (Groovy and Kotlin DSL) without running
+ * Gradle. Only the common declaration forms are understood: "group:name:version"
+ * strings, group/name/version named arguments, kotlin("...") and version catalog
+ * accessors (libs.xxx) backed by gradle/libs.versions.toml. Versions may refer to
+ * variables defined in the script or in gradle.properties.
+ */
+public class GradleBuildParser {
+    
+    private static final String VERSION_CATALOG = "gradle/libs.versions.toml";
+    private static final String GRADLE_PROPERTIES = "gradle.properties";
+    private static final String UNKNOWN_VERSION = "unknown";
+    private static final int MAX_INTERPOLATION_PASSES = 5;
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"([^\"]*)\"|'([^']*)'");
+    private static final Pattern COORDINATES = Pattern.compile(
+        "([\\w.\\-]+):([\\w.\\-]+)(?::([^:@\\s]+))?(?::[\\w.\\-]+)?(?:@\\w+)?");
+    private static final Pattern CONCATENATED_VERSION = Pattern.compile(
+        "[\"']([\\w.\\-]+):([\\w.\\-]+):[\"']\\s*\\+\\s*([A-Za-z_][\\w.]*)");
+    private static final Pattern GROUP_ARG = Pattern.compile("\\bgroup\\s*[:=]\\s*[\"']([^\"']+)[\"']");
+    private static final Pattern NAME_ARG = Pattern.compile("\\bname\\s*[:=]\\s*[\"']([^\"']+)[\"']");
+    private static final Pattern VERSION_ARG = Pattern.compile("\\bversion\\s*[:=]\\s*[\"']([^\"']+)[\"']");
+    private static final Pattern KOTLIN_MODULE = Pattern.compile(
+        "\\bkotlin\\(\\s*\"([\\w\\-]+)\"(?:\\s*,\\s*\"([^\"]+)\")?\\s*\\)");
+    private static final Pattern CATALOG_ACCESSOR = Pattern.compile("\\blibs\\.([A-Za-z][\\w.]*)");
+    private static final Pattern FIRST_WORD = Pattern.compile("^\\s*([A-Za-z_][\\w]*)");
+    private static final Pattern LAST_WORD = Pattern.compile("([A-Za-z_][\\w]*)\\s*$");
+    private static final Pattern VARIABLE = Pattern.compile(
+        "(?m)(?:^|[{;])\\s*(?:project\\.)?(?:ext\\.|def\\s+|val\\s+|var\\s+|extra\\[\\s*[\"'])?([A-Za-z_][\\w]*)(?:[\"']\\s*])?"
+            + "\\s*(?::\\s*String\\s*)?=\\s*[\"']([^\"'\\n]*)[\"']");
+    private static final Pattern SET_VARIABLE = Pattern.compile(
+        "\\bset\\(\\s*[\"']([\\w.]+)[\"']\\s*,\\s*[\"']([^\"'\\n]*)[\"']\\s*\\)");
+    private static final Pattern REFERENCE = Pattern.compile("\\$\\{([^}]+)}|\\$([A-Za-z_][\\w.]*)");
+    private static final Pattern INCLUDE = Pattern.compile("\\binclude\\b\\s*\\(?((?:[^)\\n]|,\\s*\\n)*)");
+    private static final Pattern TOML_STRING = Pattern.compile("\"([^\"]*)\"");
+    
+    // Configurations whose entries are not library dependencies of the project
+    private static final Set<String> IGNORED_CONFIGURATIONS = new HashSet<>(Arrays.asList("classpath", "exclude"));
+    
+    // gradle.properties and version catalogs by path, read once for all build scripts of a
+    // repository and again only when the file changes
+    private static final Map<Path, SharedFile> SHARED_FILES = new ConcurrentHashMap<>();
+    
+    /**
+     * Parses a build.gradle or build.gradle.kts file
+     *
+     * @param buildFile Location of the script
+     * @param repoRoot Repository root, where gradle.properties and the version catalog live
+     * @param content Content of the script
+     */
+    public static GradleBuild parseBuildScript(Path buildFile, Path repoRoot, String content) {
+        GradleBuild build = new GradleBuild();
+        String script = stripComments(content);
+        
+        Map<String, String> variables = new HashMap<>();
+        // Recorded even when absent, so that creating the file invalidates cached results
+        Path properties = repoRoot.resolve(GRADLE_PROPERTIES).toAbsolutePath().normalize();
+        build.inputs.add(properties.toString());
+        Map<String, String> gradleProperties = readShared(properties, GradleBuildParser::readProperties);
+        if (gradleProperties != null) {
+            variables.putAll(gradleProperties);
+        }
+        Matcher matcher = VARIABLE.matcher(script);
+        while (matcher.find()) {
+            variables.put(matcher.group(1), matcher.group(2));
+        }
+        matcher = SET_VARIABLE.matcher(script);
+        while (matcher.find()) {
+            variables.put(matcher.group(1), matcher.group(2));
+        }
+        // Variables defined in terms of other variables
+        for (int pass = 0; pass < MAX_INTERPOLATION_PASSES; pass++) {
+            variables.replaceAll((name, value) -> interpolate(value, variables));
+        }
+        build.group = variables.containsKey("group") ? interpolate(variables.get("group"), variables) : null;
+        
+        Map<String, String> declared = new LinkedHashMap<>();
+        Map<String, String> constraints = new HashMap<>();
+        List<String> accessors = new ArrayList<>();
+        Deque<String> blocks = new ArrayDeque<>();
+        
+        StringBuilder segment = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                segment.append(c);
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                quote = c;
+                segment.append(c);
+                continue;
+            }
+            if (c == '{' || c == '}' || c == ';' || c == '\n') {
+                String statement = segment.toString();
+                String block = blocks.peek();
+                if ("dependencies".equals(block)) {
+                    parseDeclaration(statement, declared, accessors);
+                } else if ("constraints".equals(block)) {
+                    parseDeclaration(statement, constraints, accessors);
+                }
+                if (c == '{') {
+                    Matcher word = LAST_WORD.matcher(statement);
+                    // buildscript dependencies are plugins, not libraries
+                    blocks.push(blocks.contains("buildscript") ? "buildscript" : word.find() ? word.group(1) : "");
+                } else if (c == '}' && !blocks.isEmpty()) {
+                    blocks.pop();
+                }
+                segment.setLength(0);
+                continue;
+            }
+            segment.append(c);
+        }
+        
+        Path catalogFile = repoRoot.resolve(VERSION_CATALOG).toAbsolutePath().normalize();
+        build.inputs.add(catalogFile.toString());
+        if (!accessors.isEmpty()) {
+            VersionCatalog catalog = readShared(catalogFile, GradleBuildParser::parseVersionCatalog);
+            if (catalog != null) {
+                for (String accessor : accessors) {
+                    catalog.resolve(accessor).forEach(declared::putIfAbsent);
+                }
+            }
+        }
+        
+        declared.forEach((key, version) -> {
+            String resolved = version != null ? interpolate(version, variables) : constraints.get(key);
+            build.dependencies.put(key, resolved != null ? interpolate(resolved, variables) : UNKNOWN_VERSION);
+        });
+        return build;
+    }
+    
+    /**
+     * Parses settings.gradle or settings.gradle.kts. The modules are the project
+     * directories relative to the settings file, starting with the root project.
+     */
+    public static GradleBuild parseSettings(String content) {
+        GradleBuild build = new GradleBuild();
+        build.modules.add(".");
+        
+        Matcher include = INCLUDE.matcher(stripComments(content));
+        while (include.find()) {
+            Matcher literal = STRING_LITERAL.matcher(include.group(1));
+            while (literal.find()) {
+                String project = literal.group(1) != null ? literal.group(1) : literal.group(2);
+                String dir = project.replaceAll("^:+", "").replace(':', '/');
+                if (!dir.isEmpty()) {
+                    build.modules.add(dir);
+                }
+            }
+        }
+        return build;
+    }
+    
+    /**
+     * Adds the dependencies declared in one statement of a dependencies or constraints block
+     */
+    private static void parseDeclaration(String statement, Map<String, String> dependencies, List<String> accessors) {
+        Matcher word = FIRST_WORD.matcher(statement);
+        if (statement.isBlank() || statement.contains("project(")
+                || (word.find() && IGNORED_CONFIGURATIONS.contains(word.group(1)))) {
+            return;
+        }
+        
+        Matcher group = GROUP_ARG.matcher(statement);
+        Matcher name = NAME_ARG.matcher(statement);
+        if (group.find() && name.find()) {
+            Matcher version = VERSION_ARG.matcher(statement);
+            dependencies.putIfAbsent(group.group(1) + ":" + name.group(1), version.find() ? version.group(1) : null);
+            return;
+        }
+        
+        // 'group:name:' + version
+        Matcher concatenated = CONCATENATED_VERSION.matcher(statement);
+        while (concatenated.find()) {
+            dependencies.putIfAbsent(concatenated.group(1) + ":" + concatenated.group(2), "${" + concatenated.group(3) + "}");
+        }
+        
+        Matcher literal = STRING_LITERAL.matcher(statement);
+        while (literal.find()) {
+            String value = literal.group(1) != null ? literal.group(1) : literal.group(2);
+            Matcher coordinates = COORDINATES.matcher(value);
+            if (coordinates.matches()) {
+                // Versions computed by code, e.g. ${property("x")}, cannot be resolved statically
+                String version = coordinates.group(3);
+                dependencies.putIfAbsent(coordinates.group(1) + ":" + coordinates.group(2),
+                    version != null && version.contains("(") ? null : version);
+            }
+        }
+        
+        Matcher kotlin = KOTLIN_MODULE.matcher(statement);
+        while (kotlin.find()) {
+            dependencies.putIfAbsent("org.jetbrains.kotlin:kotlin-" + kotlin.group(1), kotlin.group(2));
+        }
+        
+        Matcher accessor = CATALOG_ACCESSOR.matcher(statement);
+        while (accessor.find()) {
+            String path = accessor.group(1).replaceAll("\\.(get|asProvider)$", "");
+            if (!path.startsWith("versions.") && !path.startsWith("plugins.")) {
+                accessors.add(path);
+            }
+        }
+    }
+    
+    /**
+     * Replaces $name and ${name} references with known variables; qualified names
+     * such as ${project.springVersion} fall back to their last segment
+     */
+    private static String interpolate(String value, Map<String, String> variables) {
+        if (value == null || !value.contains("$")) {
+            return value;
+        }
+        
+        StringBuilder resolved = new StringBuilder();
+        Matcher reference = REFERENCE.matcher(value);
+        int last = 0;
+        while (reference.find()) {
+            String name = reference.group(1) != null ? reference.group(1).trim() : reference.group(2);
+            String replacement = variables.get(name);
+            if (replacement == null) {
+                replacement = variables.get(name.substring(name.lastIndexOf('.') + 1));
+            }
+            resolved.append(value, last, reference.start());
+            resolved.append(replacement != null && !replacement.contains("$") ? replacement : reference.group());
+            last = reference.end();
+        }
+        resolved.append(value.substring(last));
+        return resolved.toString();
+    }
+    
+    /**
+     * Removes // and block comments, leaving string literals intact
+     */
+    private static String stripComments(String content) {
+        StringBuilder out = new StringBuilder(content.length());
+        char quote = 0;
+        int i = 0;
+        while (i < content.length()) {
+            char c = content.charAt(i);
+            char next = i + 1 < content.length() ? content.charAt(i + 1) : 0;
+            if (quote != 0) {
+                if (c == '\\' && next != 0) {
+                    out.append(c).append(next);
+                    i += 2;
+                    continue;
+                }
+                if (c == quote || c == '\n') {
+                    quote = 0;
+                }
+                out.append(c);
+            } else if (c == '/' && next == '/') {
+                while (i < content.length() && content.charAt(i) != '\n') {
+                    i++;
+                }
+                continue;
+            } else if (c == '/' && next == '*') {
+                int end = content.indexOf("*/", i + 2);
+                i = end < 0 ? content.length() : end + 2;
+                continue;
+            } else {
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                }
+                out.append(c);
+            }
+            i++;
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Parsed content of a file shared by the build scripts of a repository, or null if
+     * there is no such file. The parse is reused while the file's size and modification
+     * time are unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T readShared(Path file, Function<Path, T> parser) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            SHARED_FILES.remove(file);
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        SharedFile shared = SHARED_FILES.get(file);
+        if (shared == null || !shared.modified.equals(attributes.lastModifiedTime()) || shared.size != attributes.size()) {
+            shared = new SharedFile(attributes.lastModifiedTime(), attributes.size(), parser.apply(file));
+            SHARED_FILES.put(file, shared);
+        }
+        return (T) shared.content;
+    }
+    
+    private static Map<String, String> readProperties(Path file) {
+        Map<String, String> variables = new HashMap<>();
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            properties.load(reader);
+            properties.stringPropertyNames().forEach(name -> variables.put(name, properties.getProperty(name)));
+        } catch (IOException e) {
+            System.err.println("Error reading " + file + ": " + e.getMessage());
+        }
+        return Collections.unmodifiableMap(variables);
+    }
+    
+    /**
+     * Reads the [versions], [libraries] and [bundles] tables of a version catalog
+     */
+    static VersionCatalog parseVersionCatalog(Path file) {
+        VersionCatalog catalog = new VersionCatalog();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error reading version catalog " + file + ": " + e.getMessage());
+            return catalog;
+        }
+        
+        String table = "";
+        StringBuilder entry = new StringBuilder();
+        for (String rawLine : lines) {
+            String line = stripTomlComment(rawLine).trim();
+            if (entry.length() == 0 && line.startsWith("[")) {
+                table = line.replaceAll("[\\[\\]\\s]", "");
+                continue;
+            }
+            entry.append(line).append(' ');
+            // Arrays may span several lines
+            String text = entry.toString();
+            if (text.chars().filter(ch -> ch == '[').count() > text.chars().filter(ch -> ch == ']').count()) {
+                continue;
+            }
+            entry.setLength(0);
+            
+            int equals = text.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String alias = text.substring(0, equals).trim().replace("\"", "");
+            String value = text.substring(equals + 1).trim();
+            switch (table) {
+                case "versions":
+                    catalog.versions.put(alias, value.startsWith("{")
+                        ? firstNonNull(tomlField(value, "strictly"), tomlField(value, "require"), tomlField(value, "prefer"))
+                        : unquoteToml(value));
+                    break;
+                case "libraries":
+                    catalog.libraries.put(VersionCatalog.accessor(alias), value);
+                    break;
+                case "bundles":
+                    List<String> members = new ArrayList<>();
+                    Matcher member = TOML_STRING.matcher(value);
+                    while (member.find()) {
+                        members.add(VersionCatalog.accessor(member.group(1)));
+                    }
+                    catalog.bundles.put(VersionCatalog.accessor(alias), members);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return catalog;
+    }
+    
+    private static String stripTomlComment(String line) {
+        boolean inString = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inString = !inString;
+            } else if (c == '#' && !inString) {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+    
+    private static String tomlField(String table, String name) {
+        Matcher matcher = Pattern.compile("(?:^|[{,\\s])" + Pattern.quote(name) + "\\s*=\\s*\"([^\"]*)\"").matcher(table);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    private static String unquoteToml(String value) {
+        Matcher matcher = TOML_STRING.matcher(value);
+        return matcher.find() ? matcher.group(1) : value;
+    }
+    
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+    
+    private static class SharedFile {
+        final FileTime modified;
+        final long size;
+        final Object content;
+        
+        SharedFile(FileTime modified, long size, Object content) {
+            this.modified = modified;
+            this.size = size;
+            this.content = content;
+        }
+    }
+    
+    /**
+     * A version catalog, looked up by the accessor path used in build scripts
+     */
+    static class VersionCatalog {
+        private final Map<String, String> versions = new HashMap<>();
+        private final Map<String, String> libraries = new HashMap<>();
+        private final Map<String, List<String>> bundles = new HashMap<>();
+        
+        /**
+         * Dependencies behind an accessor such as spring.boot.web or bundles.jackson
+         */
+        Map<String, String> resolve(String accessor) {
+            Map<String, String> resolved = new LinkedHashMap<>();
+            List<String> aliases = accessor.startsWith("bundles.")
+                ? bundles.getOrDefault(accessor.substring("bundles.".length()), Collections.emptyList())
+                : Collections.singletonList(accessor);
+            for (String alias : aliases) {
+                String library = libraries.get(alias);
+                if (library != null) {
+                    addLibrary(library, resolved);
+                }
+            }
+            return resolved;
+        }
+        
+        private void addLibrary(String definition, Map<String, String> resolved) {
+            if (!definition.startsWith("{")) {
+                Matcher coordinates = COORDINATES.matcher(unquoteToml(definition));
+                if (coordinates.matches()) {
+                    resolved.put(coordinates.group(1) + ":" + coordinates.group(2), coordinates.group(3));
+                }
+                return;
+            }
+            
+            String module = tomlField(definition, "module");
+            if (module == null && tomlField(definition, "group") != null) {
+                module = tomlField(definition, "group") + ":" + tomlField(definition, "name");
+            }
+            if (module == null) {
+                return;
+            }
+            
+            String version = tomlField(definition, "version");
+            String versionRef = firstNonNull(tomlField(definition, "version.ref"), tomlField(definition, "ref"));
+            if (version == null && versionRef != null) {
+                version = versions.get(versionRef);
+            }
+            if (version == null) {
+                version = firstNonNull(tomlField(definition, "strictly"), tomlField(definition, "require"),
+                    tomlField(definition, "prefer"));
+            }
+            resolved.put(module, version);
+        }
+        
+        // Gradle maps -, _ and . in aliases to nested accessors
+        static String accessor(String alias) {
+            return alias.replace('-', '.').replace('_', '.');
+        }
+    }
+    
+    /**
+     * What a Gradle build or settings file declares
+     */
+    public static class GradleBuild {
+        private String group;
+        private final List<String> modules = new ArrayList<>();
+        private final Map<String, String> dependencies = new LinkedHashMap<>();
+        private final Set<String> inputs = new TreeSet<>();
+        
+        /**
+         * The project group, or null when the script does not set one
+         */
+        public String getGroup() {
+            return group;
+        }
+        
+        /**
+         * Project directories included by a settings file
+         */
+        public List<String> getModules() {
+            return modules;
+        }
+        
+        /**
+         * Versions keyed by group:name, "unknown" where no version could be resolved
+         */
+        public Map<String, String> getDependencies() {
+            return dependencies;
+        }
+        
+        /**
+         * Paths of gradle.properties and the version catalog when they were used
+         */
+        public Set<String> getInputs() {
+            return inputs;
+        }
+    }
+}
+
@@ -0,0 +1,244 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.scanner.SourceFile;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.ArrayInitializerExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MemberValuePair;
+import com.github.javaparser.ast.expr.NormalAnnotationExpr;
+import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.expr.TextBlockLiteralExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithName;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Parses Java files into syntax trees and reads the symbols the analyzers need from
+ * them. JavaParser instances are not thread-safe, so each one is confined to the thread
+ * that borrowed it from the pool; the pool grows to the number of threads scanning at
+ * the same time. Only the symbols are kept, not the trees: per file for the analyzers
+ * of one scan, and by content hash for the run, so a file copied into many
+ * repositories is parsed once.
+ */
+public class JavaSourceParser {
+    
+    // Symbols of this many distinct file contents are kept for the run
+    private static final int MAX_CACHED_SOURCES = 20000;
+    
+    private final Queue<JavaParser> pool = new ConcurrentLinkedQueue<>();
+    
+    // Symbols by SHA-1 of the file content, least recently used dropped first
+    private final Map<String, JavaSymbols> symbolCache = Collections.synchronizedMap(
+        new LinkedHashMap<String, JavaSymbols>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JavaSymbols> eldest) {
+                return size() > MAX_CACHED_SOURCES;
+            }
+        });
+    
+    /**
+     * Symbols of a Java file, or null if it cannot be read or does not parse
+     */
+    public JavaSymbols symbols(SourceFile file) {
+        return file.derive(JavaSymbols.class, this::readSymbols);
+    }
+    
+    private JavaSymbols readSymbols(SourceFile file) {
+        try {
+            String contentHash = sha1(file.getBytes());
+            JavaSymbols symbols = symbolCache.get(contentHash);
+            if (symbols == null) {
+                CompilationUnit unit = parse(file.getContent());
+                if (unit == null) {
+                    return null;
+                }
+                symbols = new JavaSymbols(unit);
+                symbolCache.put(contentHash, symbols);
+            }
+            return symbols;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private CompilationUnit parse(String content) {
+        JavaParser parser = pool.poll();
+        if (parser == null) {
+            // RAW skips the per-version validators, which also reject valid code such as 'permits' as a name
+            parser = new JavaParser(new ParserConfiguration()
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.RAW)
+                .setAttributeComments(false)
+                .setStoreTokens(false));
+        }
+        try {
+            ParseResult<CompilationUnit> result = parser.parse(content);
+            return result.isSuccessful() ? result.getResult().orElse(null) : null;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            pool.offer(parser);
+        }
+    }
+    
+    /**
+     * What the analyzers read from one Java file
+     */
+    public static class JavaSymbols {
+        private final String packageName;
+        private final Set<String> referencedTypes;
+        // Annotations on type declarations, and anywhere in the file, by simple name
+        private final Map<String, List<Map<String, String>>> typeAnnotations = new HashMap<>();
+        private final Map<String, List<Map<String, String>>> annotations = new HashMap<>();
+        
+        JavaSymbols(CompilationUnit unit) {
+            this.packageName = unit.getPackageDeclaration().map(NodeWithName::getNameAsString).orElse(null);
+            this.referencedTypes = referencedTypes(unit);
+            for (TypeDeclaration<?> type : unit.findAll(TypeDeclaration.class)) {
+                for (AnnotationExpr annotation : type.getAnnotations()) {
+                    typeAnnotations.computeIfAbsent(annotation.getName().getIdentifier(), k -> new ArrayList<>())
+                        .add(attributes(annotation));
+                }
+            }
+            for (AnnotationExpr annotation : unit.findAll(AnnotationExpr.class)) {
+                if (!annotation.isMarkerAnnotationExpr()) {
+                    annotations.computeIfAbsent(annotation.getName().getIdentifier(), k -> new ArrayList<>())
+                        .add(attributes(annotation));
+                }
+            }
+        }
+        
+        public String getPackageName() {
+            return packageName;
+        }
+        
+        /**
+         * See {@link JavaSourceParser#referencedTypes(CompilationUnit)}
+         */
+        public Set<String> getReferencedTypes() {
+            return referencedTypes;
+        }
+        
+        /**
+         * Attributes of every annotation with the given simple name on a
+         * type declaration, in the same form as {@link AnnotationParser#parse(String, String)}
+         */
+        public List<Map<String, String>> getTypeAnnotations(String annotationName) {
+            return typeAnnotations.getOrDefault(annotationName, Collections.emptyList());
+        }
+        
+        /**
+         * Attributes of every annotation with the given simple name
+         * anywhere in the file, e.g. on methods; annotations without attributes are not kept
+         */
+        public List<Map<String, String>> getAnnotations(String annotationName) {
+            return annotations.getOrDefault(annotationName, Collections.emptyList());
+        }
+    }
+    
+    /**
+     * Types a file depends on, by qualified name: single-type imports, the classes that
+     * static imports read from, and fully qualified references in the code. Wildcard
+     * imports are kept as written; a simple name may come from any of them or from the
+     * file's own package, which cannot be told apart without the classpath.
+     */
+    static Set<String> referencedTypes(CompilationUnit unit) {
+        Set<String> types = new LinkedHashSet<>();
+        for (ImportDeclaration declaration : unit.getImports()) {
+            String name = declaration.getNameAsString();
+            if (declaration.isStatic()) {
+                types.add(declaration.isAsterisk() ? name : name.substring(0, Math.max(0, name.lastIndexOf('.'))));
+            } else {
+                types.add(declaration.isAsterisk() ? name + ".*" : name);
+            }
+        }
+        
+        List<String> referenced = new ArrayList<>();
+        unit.findAll(ClassOrInterfaceType.class).forEach(type -> referenced.add(type.getNameWithScope()));
+        unit.findAll(AnnotationExpr.class).forEach(annotation -> referenced.add(annotation.getNameAsString()));
+        for (String name : referenced) {
+            if (name.indexOf('.') > 0 && Character.isLowerCase(name.charAt(0))) {
+                types.add(name); // Fully qualified, e.g. org.springframework.http.HttpStatus
+            }
+        }
+        
+        types.removeIf(JavaSourceParser::isJdk);
+        return types;
+    }
+    
+    private static Map<String, String> attributes(AnnotationExpr annotation) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        if (annotation instanceof SingleMemberAnnotationExpr) {
+            attributes.put("value", evaluate(((SingleMemberAnnotationExpr) annotation).getMemberValue()));
+        } else if (annotation instanceof NormalAnnotationExpr) {
+            for (MemberValuePair pair : ((NormalAnnotationExpr) annotation).getPairs()) {
+                attributes.put(pair.getNameAsString(), evaluate(pair.getValue()));
+            }
+        }
+        return attributes;
+    }
+    
+    /**
+     * Evaluates an attribute value as far as it can be done without resolving symbols:
+     * string literals and their concatenations become their value, array elements are
+     * joined with ',', anything else is kept as source
+     */
+    private static String evaluate(Expression expression) {
+        if (expression.isArrayInitializerExpr()) {
+            StringJoiner joined = new StringJoiner(",");
+            for (Expression element : ((ArrayInitializerExpr) expression).getValues()) {
+                joined.add(evaluate(element));
+            }
+            return joined.toString();
+        }
+        String concatenated = concatenateLiterals(expression);
+        return concatenated != null ? concatenated : expression.toString();
+    }
+    
+    private static String concatenateLiterals(Expression expression) {
+        if (expression.isStringLiteralExpr()) {
+            return ((StringLiteralExpr) expression).asString();
+        }
+        if (expression.isTextBlockLiteralExpr()) {
+            return ((TextBlockLiteralExpr) expression).asString();
+        }
+        if (expression.isEnclosedExpr()) {
+            return concatenateLiterals(expression.asEnclosedExpr().getInner());
+        }
+        if (expression.isBinaryExpr() && ((BinaryExpr) expression).getOperator() == BinaryExpr.Operator.PLUS) {
+            String left = concatenateLiterals(((BinaryExpr) expression).getLeft());
+            String right = concatenateLiterals(((BinaryExpr) expression).getRight());
+            return left != null && right != null ? left + right : null;
+        }
+        return null;
+    }
+    
+    private static String sha1(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+    
+    private static boolean isJdk(String name) {
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+}
+
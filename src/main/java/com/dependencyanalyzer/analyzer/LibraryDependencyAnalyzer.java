@@ -1,55 +1,109 @@
 package com.dependencyanalyzer.analyzer;
 
+import com.dependencyanalyzer.index.FactIndex;
 import com.dependencyanalyzer.model.DependencyInfo;
-import org.apache.commons.io.FileUtils;
-import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
 
-import java.io.File;
-import java.io.FileReader;
 import java.util.*;
 
 /**
  * Analyzes common library dependencies between repositories
  */
-public class LibraryDependencyAnalyzer {
+public class LibraryDependencyAnalyzer implements Analyzer {
+    
+    private static final String POM_FILE = "pom.xml";
+    private static final Set<String> GRADLE_BUILD_FILES = new HashSet<>(Arrays.asList("build.gradle", "build.gradle.kts"));
+    private static final Set<String> GRADLE_SETTINGS_FILES = new HashSet<>(Arrays.asList("settings.gradle", "settings.gradle.kts"));
+    private static final Set<String> BUILD_FILE_TYPES = Set.of("xml", "gradle", "kts");
+    
+    // Copies of build files packaged into build output are not modules
+    private static final List<String> BUILD_OUTPUT_DIRS = Arrays.asList("target", "build", ".gradle", "node_modules");
+    
+    // Shared by all repositories so common parents and BOMs are parsed once per run,
+    // replaced by startRun() since the POMs may have changed in between
+    private volatile MavenModelResolver modelResolver = new MavenModelResolver();
+    private volatile TransitiveDependencyResolver transitiveResolver = new TransitiveDependencyResolver(modelResolver);
+    
+    // Version mismatches listed per pair among shared transitive libraries
+    private static final int MAX_TRANSITIVE_DETAILS = 10;
+    
+    private boolean transitive;
+    
+    @Override
+    public String getName() {
+        return "library";
+    }
+    
+    @Override
+    public Set<String> getFileTypes() {
+        return BUILD_FILE_TYPES;
+    }
     
     /**
-     * Analyzes library dependencies from pom.xml files
+     * Whether {@link #resolve(RepositoryFacts)} expands the libraries' transitive dependencies
      */
-    public List<DependencyInfo> analyzeLibraryDependencies(String repoPath, Map<String, String> otherRepos) {
+    public void setTransitive(boolean transitive) {
+        this.transitive = transitive;
+    }
+    
+    /**
+     * Shared libraries say little about how similar two code bases are, so pairs the
+     * similarity pre-pass drops are still compared; the lookups are cheap index queries
+     */
+    @Override
+    public boolean comparesAllPairs() {
+        return true;
+    }
+    
+    /**
+     * Analyzes library dependencies from Maven and Gradle build files
+     */
+    @Override
+    public List<DependencyInfo> analyze(RepositoryFacts source, Map<String, RepositoryFacts> otherRepos, FactIndex index) {
         List<DependencyInfo> dependencies = new ArrayList<>();
         
         try {
             // Get dependencies from source repository
-            Map<String, String> sourceDependencies = extractDependencies(repoPath);
+            Map<String, String> sourceDependencies = source.getLibraryDependencies();
+            Map<String, Set<String>> sharedDeps = index.commonFacts(
+                FactIndex.FactKind.ARTIFACT, source, otherRepos.keySet());
             
             // Compare with other repositories
-            for (Map.Entry<String, String> entry : otherRepos.entrySet()) {
+            for (Map.Entry<String, RepositoryFacts> entry : otherRepos.entrySet()) {
                 String repoName = entry.getKey();
-                String repoPath2 = entry.getValue();
-                
-                Map<String, String> targetDependencies = extractDependencies(repoPath2);
+                RepositoryFacts target = entry.getValue();
+                Map<String, String> targetDependencies = target.getLibraryDependencies();
                 
-                // Find common dependencies
-                Set<String> commonDeps = new HashSet<>(sourceDependencies.keySet());
-                commonDeps.retainAll(targetDependencies.keySet());
+                // Find common dependencies; libraries only one side reaches transitively are reported apart
+                Set<String> commonDeps = new LinkedHashSet<>();
+                Set<String> transitiveDeps = new LinkedHashSet<>();
+                for (String dep : sharedDeps.getOrDefault(repoName, Collections.emptySet())) {
+                    if (sourceDependencies.containsKey(dep) && targetDependencies.containsKey(dep)) {
+                        commonDeps.add(dep);
+                    } else {
+                        transitiveDeps.add(dep);
+                    }
+                }
                 
-                if (!commonDeps.isEmpty()) {
+                if (!commonDeps.isEmpty() || !transitiveDeps.isEmpty()) {
                     DependencyInfo depInfo = new DependencyInfo(
-                        getRepoName(repoPath),
+                        source.getName(),
                         repoName,
                         DependencyInfo.DependencyType.COMMON_LIBRARY,
                         "Common libraries: " + commonDeps.size()
+                            + (transitiveDeps.isEmpty() ? "" : " (+" + transitiveDeps.size() + " transitive)")
                     );
                     
                     for (String dep : commonDeps) {
                         String version1 = sourceDependencies.get(dep);
                         String version2 = targetDependencies.get(dep);
+                        String modules = declaringModules(source, target, dep);
                         if (version1.equals(version2)) {
-                            depInfo.addDetail(dep + ":" + version1);
+                            depInfo.addDetail(dep + ":" + version1 + modules);
                         } else {
-                            depInfo.addDetail(dep + " (versions: " + version1 + " vs " + version2 + ")");
+                            depInfo.addDetail(dep + " (versions: " + version1 + " vs " + version2 + ")" + modules);
                             depInfo.setStrength(7); // Version mismatch increases dependency concern
                         }
                     }
@@ -58,7 +112,9 @@ public class LibraryDependencyAnalyzer {
                     // Weak dependencies (strength < 5) for 1-2 shared libraries
                     // Medium (5-7) for 3-5 shared libraries
                     // Strong (8-10) for 6+ shared libraries
-                    if (commonDeps.size() <= 2) {
+                    if (commonDeps.isEmpty()) {
+                        depInfo.setStrength(3); // Shared only through other libraries
+                    } else if (commonDeps.size() <= 2) {
                         depInfo.setStrength(3 + commonDeps.size()); // 4-5 (weak)
                     } else if (commonDeps.size() <= 5) {
                         depInfo.setStrength(5 + commonDeps.size() / 2); // 6-7 (medium)
@@ -66,6 +122,10 @@ public class LibraryDependencyAnalyzer {
                         depInfo.setStrength(Math.min(10, 8 + commonDeps.size() / 3)); // 8-10 (strong)
                     }
                     
+                    if (!transitiveDeps.isEmpty()) {
+                        addTransitiveDetails(depInfo, source, target, transitiveDeps);
+                    }
+                    
                     dependencies.add(depInfo);
                 }
             }
@@ -78,50 +138,156 @@ public class LibraryDependencyAnalyzer {
     }
     
     /**
-     * Extracts dependencies from pom.xml file
+     * Summarizes libraries shared through transitive dependencies; version mismatches
+     * there are what an upgrade has to reconcile, so those are listed
      */
-    private Map<String, String> extractDependencies(String repoPath) {
-        Map<String, String> dependencies = new HashMap<>();
-        
+    private void addTransitiveDetails(DependencyInfo depInfo, RepositoryFacts source, RepositoryFacts target,
+                                      Set<String> transitiveDeps) {
+        depInfo.addDetail("Shared transitive libraries: " + transitiveDeps.size());
+        transitiveDeps.stream()
+            .filter(dep -> !versionOf(source, dep).equals(versionOf(target, dep)))
+            .limit(MAX_TRANSITIVE_DETAILS)
+            .forEach(dep -> depInfo.addDetail(dep + " (transitive versions: "
+                + versionOf(source, dep) + " vs " + versionOf(target, dep) + ")"));
+    }
+    
+    private String versionOf(RepositoryFacts repo, String dep) {
+        String version = repo.getLibraryDependencies().get(dep);
+        return version != null ? version : repo.getTransitiveDependencies().getOrDefault(dep, "unknown");
+    }
+    
+    @Override
+    public void resolve(RepositoryFacts repo) {
+        if (transitive) {
+            resolveTransitiveDependencies(repo);
+        }
+    }
+    
+    /**
+     * Forgets the parent POMs and BOMs parsed in earlier runs. Called before each run,
+     * while no repository is being extracted or resolved.
+     */
+    public void startRun() {
+        modelResolver = new MavenModelResolver();
+        transitiveResolver = new TransitiveDependencyResolver(modelResolver);
+    }
+    
+    /**
+     * Resolves the transitive closure of a repository's libraries from the local Maven repository
+     */
+    public void resolveTransitiveDependencies(RepositoryFacts repo) {
+        repo.setTransitiveDependencies(transitiveResolver.resolve(repo.getLibraryDependencies(), repo.getLibraryExclusions()));
+    }
+    
+    /**
+     * Number of distinct artifacts whose POM was not in the local Maven repository
+     */
+    public int getMissingArtifactCount() {
+        return transitiveResolver.getMissingArtifactCount();
+    }
+    
+    /**
+     * Names the modules using a library, for multi-module repositories only
+     */
+    private String declaringModules(RepositoryFacts source, RepositoryFacts target, String dep) {
+        if (source.getModuleDependencies().size() <= 1 && target.getModuleDependencies().size() <= 1) {
+            return "";
+        }
+        return " [" + modulesUsing(source, dep) + " -> " + modulesUsing(target, dep) + "]";
+    }
+    
+    private String modulesUsing(RepositoryFacts repo, String dep) {
+        List<String> modules = new ArrayList<>();
+        repo.getModuleDependencies().forEach((module, libraries) -> {
+            if (libraries.containsKey(dep)) {
+                modules.add(module.substring(module.indexOf(':') + 1));
+            }
+        });
+        return String.join(", ", modules);
+    }
+    
+    /**
+     * Accepts every pom.xml and Gradle build or settings file outside build output; which
+     * of them belong to the build is decided from the root's modules once the whole
+     * repository is scanned
+     */
+    @Override
+    public boolean accepts(SourceFile file) {
+        String fileName = file.getFileName();
+        if (!fileName.equals(POM_FILE) && !GRADLE_BUILD_FILES.contains(fileName)
+                && !GRADLE_SETTINGS_FILES.contains(fileName)) {
+            return false;
+        }
+        String path = "/" + file.getRelativePath();
+        return BUILD_OUTPUT_DIRS.stream().noneMatch(dir -> path.contains("/" + dir + "/"));
+    }
+    
+    /**
+     * Extracts the dependencies of a build file
+     */
+    @Override
+    public void extract(SourceFile file, FileFacts facts) {
+        if (GRADLE_BUILD_FILES.contains(file.getFileName())) {
+            extractGradleBuild(file, facts);
+        } else if (GRADLE_SETTINGS_FILES.contains(file.getFileName())) {
+            extractGradleSettings(file, facts);
+        } else {
+            extractPom(file, facts);
+        }
+    }
+    
+    /**
+     * Extracts the effective dependencies of a pom.xml file, with versions inherited
+     * from parents and dependencyManagement and properties interpolated
+     */
+    private void extractPom(SourceFile file, FileFacts facts) {
         try {
-            File pomFile = new File(repoPath, "pom.xml");
-            if (!pomFile.exists()) {
-                // Try to find pom.xml in subdirectories
-                Collection<File> pomFiles = FileUtils.listFiles(
-                    new File(repoPath),
-                    new String[]{"xml"},
-                    true
-                );
-                
-                for (File file : pomFiles) {
-                    if (file.getName().equals("pom.xml")) {
-                        pomFile = file;
-                        break;
-                    }
+            MavenModelResolver.EffectivePom pom = modelResolver.resolve(file.getPath(), file.getContent());
+            facts.setBuildFile(true);
+            facts.setArtifact(pom.getKey());
+            pom.getModules().forEach(facts::addModule);
+            pom.getDependencies().forEach(facts::putDependency);
+            pom.getTransitiveExclusions().forEach((key, excluded) -> {
+                if (!excluded.isEmpty()) {
+                    facts.putExclusions(key, excluded);
                 }
-            }
-            
-            if (pomFile.exists()) {
-                MavenXpp3Reader reader = new MavenXpp3Reader();
-                Model model = reader.read(new FileReader(pomFile));
-                
-                // Extract dependencies
-                model.getDependencies().forEach(dep -> {
-                    String key = dep.getGroupId() + ":" + dep.getArtifactId();
-                    String version = dep.getVersion() != null ? dep.getVersion() : "unknown";
-                    dependencies.put(key, version);
-                });
-            }
+            });
+            facts.getBuildInputs().addAll(pom.getInputs());
         } catch (Exception e) {
-            System.err.println("Error reading pom.xml from " + repoPath + ": " + e.getMessage());
+            System.err.println("Error reading pom.xml from " + file.getRepoRoot() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Extracts the dependencies of a build.gradle or build.gradle.kts file
+     */
+    private void extractGradleBuild(SourceFile file, FileFacts facts) {
+        try {
+            GradleBuildParser.GradleBuild build = GradleBuildParser.parseBuildScript(
+                file.getPath(), file.getRepoRoot(), file.getContent());
+            String parentPath = file.getParentPath();
+            String projectName = parentPath.isEmpty()
+                ? file.getRepoRoot().toAbsolutePath().normalize().getFileName().toString()
+                : parentPath.substring(parentPath.lastIndexOf('/') + 1);
+            facts.setBuildFile(true);
+            facts.setArtifact((build.getGroup() != null ? build.getGroup() : "") + ":" + projectName);
+            build.getDependencies().forEach(facts::putDependency);
+            facts.getBuildInputs().addAll(build.getInputs());
+        } catch (Exception e) {
+            System.err.println("Error reading " + file.getRelativePath() + " from " + file.getRepoRoot() + ": " + e.getMessage());
         }
-        
-        return dependencies;
     }
     
-    private String getRepoName(String repoPath) {
-        File file = new File(repoPath);
-        return file.getName();
+    /**
+     * Records the projects a settings.gradle file includes
+     */
+    private void extractGradleSettings(SourceFile file, FileFacts facts) {
+        try {
+            facts.setBuildFile(true);
+            GradleBuildParser.parseSettings(file.getContent()).getModules().forEach(facts::addModule);
+        } catch (Exception e) {
+            System.err.println("Error reading " + file.getRelativePath() + " from " + file.getRepoRoot() + ": " + e.getMessage());
+        }
     }
 }
 
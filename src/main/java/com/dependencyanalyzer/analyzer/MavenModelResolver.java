@@ -0,0 +1,400 @@
+package com.dependencyanalyzer.analyzer;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a simplified effective POM without network access: parent inheritance,
+ * property interpolation and dependencyManagement, including imported BOMs.
+ * Parents are looked up through their relativePath first and then in the local
+ * Maven repository (~/.m2/repository, or -Dmaven.repo.local).
+ *
+ * Parsed parents and BOMs are cached for the lifetime of the resolver, since most
+ * repositories of a fleet inherit from the same few parent POMs. Use one resolver
+ * per run so that POMs changed in between are read again.
+ *
+ * Every POM location that was looked at is reported as an input, including those
+ * that did not exist, so that a cached result is invalidated once they appear.
+ */
+public class MavenModelResolver {
+    
+    private static final String POM_FILE = "pom.xml";
+    private static final String UNKNOWN_VERSION = "unknown";
+    
+    // Guards against parent or import cycles
+    private static final int MAX_DEPTH = 20;
+    
+    // Cached in place of parents that could not be found, so each is reported once
+    private static final InheritedPom MISSING_PARENT = new InheritedPom();
+    
+    private final Path localRepository;
+    
+    // Parent POMs with their own ancestors merged in, keyed by file path
+    private final Map<String, InheritedPom> parentCache = new ConcurrentHashMap<>();
+    
+    // Fully resolved dependencyManagement of imported BOMs, keyed by groupId:artifactId:version
+    private final Map<String, ResolvedBom> bomCache = new ConcurrentHashMap<>();
+    
+    public MavenModelResolver() {
+        this(defaultLocalRepository());
+    }
+    
+    public MavenModelResolver(Path localRepository) {
+        this.localRepository = localRepository.toAbsolutePath().normalize();
+    }
+    
+    /**
+     * Resolves the effective model of a POM
+     *
+     * @param pomFile Location of the POM, used to find parents by relativePath
+     * @param content Content of the POM
+     */
+    public EffectivePom resolve(Path pomFile, String content) throws IOException, XmlPullParserException {
+        Model model = read(new StringReader(content));
+        InheritedPom pom = inherit(model, pomFile.toAbsolutePath().normalize(), 0);
+        
+        EffectivePom effective = new EffectivePom();
+        effective.inputs.addAll(pom.inputs);
+        effective.modules.addAll(model.getModules());
+        
+        Map<String, String> properties = pom.interpolatedProperties();
+        effective.groupId = interpolate(pom.groupId, properties);
+        effective.artifactId = interpolate(pom.artifactId, properties);
+        Map<String, String> managed = resolveManagement(pom, properties, effective.inputs, 0);
+        
+        for (Dependency dep : pom.dependencies.values()) {
+            String key = interpolate(dep.getGroupId(), properties) + ":" + interpolate(dep.getArtifactId(), properties);
+            String version = dep.getVersion() != null ? interpolate(dep.getVersion(), properties) : managed.get(key);
+            effective.dependencies.put(key, version != null ? version : UNKNOWN_VERSION);
+            
+            // Only compile and runtime dependencies reach the consumers of this artifact
+            String scope = dep.getScope() != null ? dep.getScope() : "compile";
+            if (!dep.isOptional() && (scope.equals("compile") || scope.equals("runtime"))) {
+                Set<String> exclusions = new HashSet<>();
+                dep.getExclusions().forEach(exclusion -> exclusions.add(
+                    interpolate(exclusion.getGroupId(), properties) + ":" + interpolate(exclusion.getArtifactId(), properties)));
+                effective.transitiveExclusions.put(key, exclusions);
+            }
+        }
+        return effective;
+    }
+    
+    /**
+     * Merges a model with its ancestors. Values declared closer to the model win.
+     */
+    private InheritedPom inherit(Model model, Path pomFile, int depth) {
+        InheritedPom pom = new InheritedPom();
+        InheritedPom parent = null;
+        if (model.getParent() != null && depth < MAX_DEPTH) {
+            parent = resolveParent(model.getParent(), pomFile, pom.inputs, depth);
+        }
+        
+        if (parent != null) {
+            pom.inputs.addAll(parent.inputs);
+            pom.properties.putAll(parent.properties);
+            pom.managed.putAll(parent.managed);
+            pom.dependencies.putAll(parent.dependencies);
+        }
+        
+        Parent parentRef = model.getParent();
+        pom.groupId = model.getGroupId() != null ? model.getGroupId()
+            : parentRef != null ? parentRef.getGroupId() : null;
+        pom.artifactId = model.getArtifactId();
+        pom.version = model.getVersion() != null ? model.getVersion()
+            : parentRef != null ? parentRef.getVersion() : null;
+        if (parentRef != null) {
+            pom.parentGroupId = parentRef.getGroupId();
+            pom.parentArtifactId = parentRef.getArtifactId();
+            pom.parentVersion = parentRef.getVersion();
+        }
+        
+        model.getProperties().forEach((key, value) -> pom.properties.put(key.toString(), value.toString()));
+        DependencyManagement management = model.getDependencyManagement();
+        if (management != null) {
+            for (Dependency dep : management.getDependencies()) {
+                pom.managed.put(dep.getManagementKey(), dep);
+            }
+        }
+        for (Dependency dep : model.getDependencies()) {
+            pom.dependencies.put(dep.getManagementKey(), dep);
+        }
+        return pom;
+    }
+    
+    private InheritedPom resolveParent(Parent parent, Path pomFile, Set<String> inputs, int depth) {
+        Path localFile = localParentFile(parent, pomFile);
+        if (localFile != null) {
+            inputs.add(localFile.toString());
+        }
+        if (localFile != null && Files.isRegularFile(localFile)) {
+            // Cached by path, so a parent shared by many modules is read once, also to check its coordinates
+            InheritedPom local = loadParent(localFile, depth);
+            if (local != null && local.isModel(parent)) {
+                return local;
+            }
+        }
+        
+        Path parentFile = repositoryPom(parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+        if (parentFile != null) {
+            inputs.add(parentFile.toString());
+        }
+        if (parentFile == null || !Files.isRegularFile(parentFile)) {
+            String cacheKey = parent.getId();
+            if (parentCache.putIfAbsent(cacheKey, MISSING_PARENT) == null) {
+                System.err.println("Parent POM not found locally or in " + localRepository + ": " + cacheKey);
+            }
+            return null;
+        }
+        return loadParent(parentFile, depth);
+    }
+    
+    /**
+     * A parent POM merged with its own ancestors, read on first use; null if it cannot be read
+     */
+    private InheritedPom loadParent(Path parentFile, int depth) {
+        String cacheKey = parentFile.toString();
+        InheritedPom cached = parentCache.get(cacheKey);
+        if (cached == null) {
+            cached = MISSING_PARENT;
+            try (Reader reader = Files.newBufferedReader(parentFile, StandardCharsets.UTF_8)) {
+                cached = inherit(read(reader), parentFile, depth + 1);
+                cached.inputs.add(cacheKey);
+            } catch (IOException | XmlPullParserException e) {
+                System.err.println("Error reading parent POM " + parentFile + ": " + e.getMessage());
+            }
+            InheritedPom raced = parentCache.putIfAbsent(cacheKey, cached);
+            if (raced != null) {
+                cached = raced;
+            }
+        }
+        return cached != MISSING_PARENT ? cached : null;
+    }
+    
+    /**
+     * Where a parent's relativePath points to, normalized, or null if it is empty. The file
+     * may not exist; whether it is the parent the child refers to is checked against its coordinates.
+     */
+    private Path localParentFile(Parent parent, Path pomFile) {
+        String relativePath = parent.getRelativePath();
+        if (relativePath == null || relativePath.trim().isEmpty() || pomFile.getParent() == null) {
+            return null;
+        }
+        
+        Path candidate = pomFile.getParent().resolve(relativePath.trim()).normalize();
+        if (Files.isDirectory(candidate) || !candidate.getFileName().toString().endsWith(".xml")) {
+            candidate = candidate.resolve(POM_FILE);
+        }
+        return candidate;
+    }
+    
+    /**
+     * Interpolates the managed versions of a POM and merges in its imported BOMs.
+     * Entries declared directly take precedence over imported ones.
+     */
+    private Map<String, String> resolveManagement(InheritedPom pom, Map<String, String> properties,
+                                                  Set<String> inputs, int depth) {
+        Map<String, String> managed = new LinkedHashMap<>();
+        List<Dependency> imports = new ArrayList<>();
+        
+        for (Dependency dep : pom.managed.values()) {
+            if ("import".equals(dep.getScope()) && "pom".equals(dep.getType())) {
+                imports.add(dep);
+                continue;
+            }
+            String key = interpolate(dep.getGroupId(), properties) + ":" + interpolate(dep.getArtifactId(), properties);
+            if (dep.getVersion() != null) {
+                managed.putIfAbsent(key, interpolate(dep.getVersion(), properties));
+            }
+        }
+        
+        if (depth < MAX_DEPTH) {
+            for (Dependency bom : imports) {
+                resolveBom(interpolate(bom.getGroupId(), properties), interpolate(bom.getArtifactId(), properties),
+                    interpolate(bom.getVersion(), properties), inputs, depth)
+                    .forEach(managed::putIfAbsent);
+            }
+        }
+        return managed;
+    }
+    
+    private Map<String, String> resolveBom(String groupId, String artifactId, String version,
+                                           Set<String> inputs, int depth) {
+        String cacheKey = groupId + ":" + artifactId + ":" + version;
+        ResolvedBom cached = bomCache.get(cacheKey);
+        if (cached == null) {
+            cached = new ResolvedBom();
+            Path bomFile = repositoryPom(groupId, artifactId, version);
+            if (bomFile != null) {
+                cached.inputs.add(bomFile.toString());
+            }
+            if (bomFile != null && Files.isRegularFile(bomFile)) {
+                try (Reader reader = Files.newBufferedReader(bomFile, StandardCharsets.UTF_8)) {
+                    InheritedPom pom = inherit(read(reader), bomFile, depth + 1);
+                    cached.inputs.addAll(pom.inputs);
+                    cached.managed = resolveManagement(pom, pom.interpolatedProperties(), cached.inputs, depth + 1);
+                } catch (IOException | XmlPullParserException e) {
+                    System.err.println("Error reading imported POM " + bomFile + ": " + e.getMessage());
+                }
+            } else {
+                System.err.println("Imported POM not found in " + localRepository + ": " + cacheKey);
+            }
+            ResolvedBom raced = bomCache.putIfAbsent(cacheKey, cached);
+            if (raced != null) {
+                cached = raced;
+            }
+        }
+        inputs.addAll(cached.inputs);
+        return cached.managed;
+    }
+    
+    /**
+     * Location of an artifact's POM in the local repository, or null for unresolvable coordinates
+     */
+    Path repositoryPom(String groupId, String artifactId, String version) {
+        if (groupId == null || artifactId == null || version == null
+                || PlaceholderResolver.isUnresolved(groupId + artifactId + version)
+                || version.startsWith("[") || version.startsWith("(")) {
+            return null;
+        }
+        return localRepository.resolve(groupId.replace('.', '/'))
+            .resolve(artifactId)
+            .resolve(version)
+            .resolve(artifactId + "-" + version + ".pom");
+    }
+    
+    private static String interpolate(String value, Map<String, String> properties) {
+        return PlaceholderResolver.resolve(value, properties);
+    }
+    
+    private static Model read(Reader reader) throws IOException, XmlPullParserException {
+        return new MavenXpp3Reader().read(reader, false);
+    }
+    
+    private static Path defaultLocalRepository() {
+        String configured = System.getProperty("maven.repo.local");
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".m2", "repository");
+    }
+    
+    /**
+     * A model merged with its ancestors, before interpolation
+     */
+    private static class InheritedPom {
+        String groupId;
+        String artifactId;
+        String version;
+        String parentGroupId;
+        String parentArtifactId;
+        String parentVersion;
+        final Map<String, String> properties = new HashMap<>();
+        final Map<String, Dependency> managed = new LinkedHashMap<>();
+        final Map<String, Dependency> dependencies = new LinkedHashMap<>();
+        final Set<String> inputs = new TreeSet<>();
+        
+        /**
+         * Declared properties plus the project.* values, with references between them resolved
+         */
+        Map<String, String> interpolatedProperties() {
+            Map<String, String> raw = new HashMap<>(properties);
+            putIfNotNull(raw, "project.groupId", groupId);
+            putIfNotNull(raw, "project.artifactId", artifactId);
+            putIfNotNull(raw, "project.version", version);
+            putIfNotNull(raw, "project.parent.groupId", parentGroupId);
+            putIfNotNull(raw, "project.parent.artifactId", parentArtifactId);
+            putIfNotNull(raw, "project.parent.version", parentVersion);
+            putIfNotNull(raw, "pom.version", version);
+            
+            Map<String, String> interpolated = new HashMap<>();
+            raw.forEach((key, value) -> interpolated.put(key, interpolate(value, raw)));
+            return interpolated;
+        }
+        
+        /**
+         * Whether this is the POM a parent reference points to
+         */
+        boolean isModel(Parent parent) {
+            return Objects.equals(groupId, parent.getGroupId())
+                && Objects.equals(artifactId, parent.getArtifactId())
+                && Objects.equals(version, parent.getVersion());
+        }
+        
+        private static void putIfNotNull(Map<String, String> map, String key, String value) {
+            if (value != null) {
+                map.put(key, value);
+            }
+        }
+    }
+    
+    /**
+     * The dependencyManagement of an imported BOM, ready to merge into importing POMs
+     */
+    private static class ResolvedBom {
+        Map<String, String> managed = Collections.emptyMap();
+        final Set<String> inputs = new TreeSet<>();
+    }
+    
+    /**
+     * The parts of an effective POM the analyzers use
+     */
+    public static class EffectivePom {
+        private String groupId;
+        private String artifactId;
+        private final List<String> modules = new ArrayList<>();
+        private final Map<String, String> dependencies = new LinkedHashMap<>();
+        private final Map<String, Set<String>> transitiveExclusions = new LinkedHashMap<>();
+        private final Set<String> inputs = new TreeSet<>();
+        
+        /**
+         * groupId:artifactId of the project itself
+         */
+        public String getKey() {
+            return groupId + ":" + artifactId;
+        }
+        
+        /**
+         * Module directories (or POM files) as declared, relative to this POM
+         */
+        public List<String> getModules() {
+            return modules;
+        }
+        
+        /**
+         * Versions keyed by groupId:artifactId, "unknown" where no version could be resolved
+         */
+        public Map<String, String> getDependencies() {
+            return dependencies;
+        }
+        
+        /**
+         * Dependencies passed on to consumers (compile or runtime scope, not optional),
+         * each mapped to the groupId:artifactId patterns it excludes
+         */
+        public Map<String, Set<String>> getTransitiveExclusions() {
+            return transitiveExclusions;
+        }
+        
+        /**
+         * Paths of every other POM the model was derived from
+         */
+        public Set<String> getInputs() {
+            return inputs;
+        }
+    }
+}
+
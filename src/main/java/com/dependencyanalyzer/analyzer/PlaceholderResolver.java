@@ -0,0 +1,85 @@
+package com.dependencyanalyzer.analyzer;
+
+import java.util.Map;
+
+/**
+ * Resolves Spring-style ${key} and ${key:default} placeholders against a repository's config values
+ */
+public class PlaceholderResolver {
+    
+    // Guards against placeholders that refer to each other
+    private static final int MAX_DEPTH = 10;
+    
+    /**
+     * Replaces every placeholder that can be resolved. Unknown keys without a default are left as written.
+     */
+    public static String resolve(String value, Map<String, String> config) {
+        return resolve(value, config, 0);
+    }
+    
+    /**
+     * Whether the value still contains a placeholder
+     */
+    public static boolean isUnresolved(String value) {
+        return value != null && value.contains("${");
+    }
+    
+    private static String resolve(String value, Map<String, String> config, int depth) {
+        if (value == null || depth > MAX_DEPTH || !value.contains("${")) {
+            return value;
+        }
+        
+        StringBuilder resolved = new StringBuilder();
+        int i = 0;
+        while (i < value.length()) {
+            int start = value.indexOf("${", i);
+            if (start < 0) {
+                resolved.append(value, i, value.length());
+                break;
+            }
+            int end = findClosingBrace(value, start + 2);
+            if (end < 0) {
+                resolved.append(value, i, value.length());
+                break;
+            }
+            
+            resolved.append(value, i, start);
+            String placeholder = value.substring(start + 2, end);
+            String key = placeholder;
+            String defaultValue = null;
+            int defaultIndex = placeholder.indexOf(':');
+            if (defaultIndex >= 0) {
+                key = placeholder.substring(0, defaultIndex);
+                defaultValue = placeholder.substring(defaultIndex + 1);
+            }
+            
+            String replacement = config.get(key.trim());
+            if (replacement == null) {
+                replacement = defaultValue;
+            }
+            resolved.append(replacement != null
+                ? resolve(replacement, config, depth + 1)
+                : value.substring(start, end + 1));
+            i = end + 1;
+        }
+        
+        return resolved.toString();
+    }
+    
+    private static int findClosingBrace(String value, int from) {
+        int depth = 0;
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+}
+
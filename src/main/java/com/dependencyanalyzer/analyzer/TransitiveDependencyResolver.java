@@ -0,0 +1,143 @@
+package com.dependencyanalyzer.analyzer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes transitive dependency closures from the POMs in the local Maven repository,
+ * without network access. The closure of every artifact is cached, so a subtree shared
+ * by many repositories (e.g. a Spring Boot starter) is walked once per run.
+ *
+ * Versions are mediated "first declaration wins" rather than Maven's nearest-wins:
+ * direct dependencies come first, then the closures of each one in declaration order.
+ * As in Maven, an exclusion prunes the excluded artifact together with everything
+ * reached only through it, and applies to the whole subtree below the dependency
+ * that declares it, the repository's own dependencies included.
+ */
+public class TransitiveDependencyResolver {
+    
+    private static final String UNKNOWN_VERSION = "unknown";
+    
+    private final MavenModelResolver modelResolver;
+    
+    // Closure of each artifact under the exclusions in effect, keyed by groupId:artifactId:version
+    // followed by the sorted exclusions, if any
+    private final Map<String, Map<String, String>> closureCache = new ConcurrentHashMap<>();
+    
+    // Artifacts whose POM is not in the local repository
+    private final Set<String> missingArtifacts = ConcurrentHashMap.newKeySet();
+    
+    public TransitiveDependencyResolver(MavenModelResolver modelResolver) {
+        this.modelResolver = modelResolver;
+    }
+    
+    /**
+     * Dependencies reached through the given direct dependencies, excluding the direct ones
+     *
+     * @param directDependencies Versions keyed by groupId:artifactId
+     * @param exclusions Artifacts excluded below each direct dependency, as
+     *                   groupId:artifactId with * wildcards, keyed like the dependencies
+     */
+    public Map<String, String> resolve(Map<String, String> directDependencies, Map<String, Set<String>> exclusions) {
+        Map<String, String> closure = new LinkedHashMap<>();
+        directDependencies.forEach((key, version) -> {
+            Set<String> excluded = new TreeSet<>(exclusions.getOrDefault(key, Collections.emptySet()));
+            for (Map.Entry<String, String> entry : closureOf(key, version, excluded, new HashMap<>(),
+                    new int[] {Integer.MAX_VALUE}).entrySet()) {
+                if (!directDependencies.containsKey(entry.getKey())) {
+                    closure.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        });
+        return closure;
+    }
+    
+    /**
+     * Number of distinct artifacts whose POM could not be found so far
+     */
+    public int getMissingArtifactCount() {
+        return missingArtifacts.size();
+    }
+    
+    /**
+     * Closure of one artifact
+     *
+     * @param excluded Exclusions declared further up, sorted; excluded artifacts are not expanded
+     * @param path Artifacts being expanded further up, with their depth
+     * @param lowestCycleDepth Lowest depth a dependency cycle below this call led back to
+     */
+    private Map<String, String> closureOf(String key, String version, Set<String> excluded,
+                                          Map<String, Integer> path, int[] lowestCycleDepth) {
+        String coordinates = key + ":" + version;
+        String cacheKey = excluded.isEmpty() ? coordinates : coordinates + excluded;
+        Map<String, String> cached = closureCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        if (UNKNOWN_VERSION.equals(version)) {
+            return Collections.emptyMap();
+        }
+        // A dependency cycle: the artifact is already being expanded further up
+        Integer cycleDepth = path.get(coordinates);
+        if (cycleDepth != null) {
+            lowestCycleDepth[0] = Math.min(lowestCycleDepth[0], cycleDepth);
+            return Collections.emptyMap();
+        }
+        
+        int depth = path.size();
+        path.put(coordinates, depth);
+        int outerCycleDepth = lowestCycleDepth[0];
+        lowestCycleDepth[0] = Integer.MAX_VALUE;
+        
+        Map<String, String> closure = new LinkedHashMap<>();
+        String[] parts = key.split(":", 2);
+        Path pomFile = parts.length == 2 ? modelResolver.repositoryPom(parts[0], parts[1], version) : null;
+        if (pomFile != null && Files.isRegularFile(pomFile)) {
+            try {
+                MavenModelResolver.EffectivePom pom = modelResolver.resolve(
+                    pomFile, new String(Files.readAllBytes(pomFile), StandardCharsets.UTF_8));
+                
+                Map<String, Set<String>> children = new LinkedHashMap<>(pom.getTransitiveExclusions());
+                children.keySet().removeIf(child -> isExcluded(child, excluded));
+                children.keySet().forEach(child -> closure.putIfAbsent(child, pom.getDependencies().get(child)));
+                children.forEach((child, exclusions) -> {
+                    Set<String> childExcluded = excluded;
+                    if (!excluded.containsAll(exclusions)) {
+                        childExcluded = new TreeSet<>(excluded);
+                        childExcluded.addAll(exclusions);
+                    }
+                    String childVersion = pom.getDependencies().get(child);
+                    closureOf(child, childVersion, childExcluded, path, lowestCycleDepth).forEach(closure::putIfAbsent);
+                });
+            } catch (Exception e) {
+                System.err.println("Error reading " + pomFile + ": " + e.getMessage());
+            }
+        } else {
+            missingArtifacts.add(coordinates);
+        }
+        path.remove(coordinates);
+        
+        // A closure cut short by a cycle through an artifact further up is incomplete, so it is not cached
+        boolean complete = lowestCycleDepth[0] >= depth;
+        lowestCycleDepth[0] = Math.min(outerCycleDepth, lowestCycleDepth[0]);
+        
+        Map<String, String> result = Collections.unmodifiableMap(closure);
+        if (!complete) {
+            return result;
+        }
+        Map<String, String> raced = closureCache.putIfAbsent(cacheKey, result);
+        return raced != null ? raced : result;
+    }
+    
+    private static boolean isExcluded(String key, Set<String> exclusions) {
+        if (exclusions.isEmpty()) {
+            return false;
+        }
+        String groupId = key.substring(0, key.indexOf(':'));
+        return exclusions.contains(key) || exclusions.contains("*:*") || exclusions.contains(groupId + ":*");
+    }
+}
+
@@ -0,0 +1,293 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.model.RepositoryFacts;
+
+import java.util.*;
+
+/**
+ * Index of the extracted facts (artifact, import, package, file path, source content
+ * hash, config file, config key, spring.application.name, infrastructure resource) of
+ * all scanned repositories.
+ * Fact strings are numbered in a {@link SymbolTable} and each repository holds one
+ * compressed {@link FactSet} per kind, so overlap counts come from AND plus popcount
+ * and strings are only looked up for the facts that are reported. The table is the
+ * one the scanner canonicalized the extracted facts with, so it refers to the same
+ * instances the repository facts hold; it lives for one analysis run.
+ */
+public class FactIndex {
+    
+    public enum FactKind {
+        ARTIFACT,
+        IMPORT,
+        PACKAGE,
+        FILE_PATH,
+        CONTENT_HASH,
+        CONFIG_FILE,
+        CONFIG_KEY,
+        APPLICATION_NAME,
+        RESOURCE
+    }
+    
+    // Config keys are only comparable within the same config file
+    private static final char CONFIG_KEY_SEPARATOR = '\u0000';
+    
+    private final SymbolTable symbols;
+    private final Map<FactKind, Map<String, FactSet>> facts = new EnumMap<>(FactKind.class);
+    
+    // Built on first lookup: fact ID to the repositories that contain it
+    private final Map<FactKind, Map<Integer, List<String>>> postings = new EnumMap<>(FactKind.class);
+    
+    // Repositories by name, for the file-level near-duplicate index built on first use
+    private final Map<String, RepositoryFacts> repositories = new LinkedHashMap<>();
+    // Pairs the near-duplicate index covers; null for every pair of indexed repositories
+    private Map<String, Set<String>> comparedPairs;
+    private NearDuplicateIndex nearDuplicates;
+    
+    public FactIndex(Collection<RepositoryFacts> repos) {
+        this(repos, new SymbolTable());
+    }
+    
+    /**
+     * @param symbols Table the facts of the repositories were canonicalized with
+     */
+    public FactIndex(Collection<RepositoryFacts> repos, SymbolTable symbols) {
+        this.symbols = symbols;
+        for (FactKind kind : FactKind.values()) {
+            facts.put(kind, new LinkedHashMap<>());
+        }
+        repos.forEach(this::add);
+    }
+    
+    /**
+     * Adds every fact of a repository to the index
+     */
+    public synchronized void add(RepositoryFacts repo) {
+        for (FactKind kind : FactKind.values()) {
+            facts.get(kind).put(repo.getName(), FactSet.of(symbols.internAll(factsOf(kind, repo))));
+        }
+        postings.clear();
+        repositories.put(repo.getName(), repo);
+        nearDuplicates = null;
+    }
+    
+    /**
+     * Finds the facts of one kind that the source shares with each target
+     * 
+     * @param kind Kind of fact to compare
+     * @param source Repository whose facts are looked up
+     * @param targets Names of the repositories to report overlaps for
+     * @return Target repository names mapped to their common facts (targets without overlap are absent)
+     */
+    public Map<String, Set<String>> commonFacts(FactKind kind, RepositoryFacts source, Set<String> targets) {
+        Map<String, Set<String>> common = new HashMap<>();
+        Map<String, FactSet> kindFacts = facts.get(kind);
+        FactSet sourceFacts = kindFacts.getOrDefault(source.getName(), FactSet.EMPTY);
+        if (sourceFacts.cardinality() == 0) {
+            return common;
+        }
+        if (targets.size() > 1) {
+            sourceFacts = sourceFacts.toBitmaps();
+        }
+        
+        for (String target : targets) {
+            FactSet targetFacts = kindFacts.get(target);
+            if (target.equals(source.getName()) || targetFacts == null) {
+                continue;
+            }
+            int[] shared = sourceFacts.and(targetFacts, Integer.MAX_VALUE);
+            if (shared.length > 0) {
+                Set<String> sharedFacts = new HashSet<>();
+                for (int id : shared) {
+                    sharedFacts.add(symbols.symbol(id));
+                }
+                common.put(target, sharedFacts);
+            }
+        }
+        
+        return common;
+    }
+    
+    /**
+     * Counts the facts of one kind that the source shares with each target, without
+     * materializing them
+     * 
+     * @return Target repository names mapped to their overlap (targets without overlap are absent)
+     */
+    public Map<String, Integer> overlapCounts(FactKind kind, RepositoryFacts source, Set<String> targets) {
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, FactSet> kindFacts = facts.get(kind);
+        FactSet sourceFacts = kindFacts.getOrDefault(source.getName(), FactSet.EMPTY);
+        if (sourceFacts.cardinality() == 0) {
+            return counts;
+        }
+        // Counted against every target, so expand it to bitmaps once
+        if (targets.size() > 1) {
+            sourceFacts = sourceFacts.toBitmaps();
+        }
+        
+        for (String target : targets) {
+            FactSet targetFacts = kindFacts.get(target);
+            if (target.equals(source.getName()) || targetFacts == null) {
+                continue;
+            }
+            int count = sourceFacts.andCardinality(targetFacts);
+            if (count > 0) {
+                counts.put(target, count);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * The first common facts of one kind between two repositories, in interning order
+     * 
+     * @param limit Maximum number of facts to return
+     */
+    public List<String> sampleCommonFacts(FactKind kind, RepositoryFacts source, String target, int limit) {
+        Map<String, FactSet> kindFacts = facts.get(kind);
+        FactSet sourceFacts = kindFacts.getOrDefault(source.getName(), FactSet.EMPTY);
+        FactSet targetFacts = kindFacts.getOrDefault(target, FactSet.EMPTY);
+        
+        List<String> sample = new ArrayList<>();
+        for (int id : sourceFacts.and(targetFacts, limit)) {
+            sample.add(symbols.symbol(id));
+        }
+        return sample;
+    }
+    
+    /**
+     * Interned IDs of a repository's facts of one kind, ascending
+     */
+    public int[] factIds(FactKind kind, String repo) {
+        return facts.get(kind).getOrDefault(repo, FactSet.EMPTY).toArray();
+    }
+    
+    /**
+     * Names of the repositories that contain a fact, in the order they were added
+     */
+    public synchronized List<String> repositoriesWith(FactKind kind, String fact) {
+        return postingsOf(kind).getOrDefault(symbols.idOf(fact), Collections.emptyList());
+    }
+    
+    /**
+     * Facts of one kind held by at least the given number of repositories, mapped to
+     * those repositories, most widely shared first. Read in one pass over the postings,
+     * so no pair of repositories is compared.
+     */
+    public synchronized Map<String, List<String>> sharedFacts(FactKind kind, int minRepositories) {
+        List<Map.Entry<String, List<String>>> shared = new ArrayList<>();
+        postingsOf(kind).forEach((id, repos) -> {
+            if (repos.size() >= minRepositories) {
+                shared.add(new AbstractMap.SimpleEntry<>(symbols.symbol(id), repos));
+            }
+        });
+        shared.sort(Comparator.comparingInt((Map.Entry<String, List<String>> entry) -> entry.getValue().size()).reversed()
+            .thenComparing(Map.Entry::getKey));
+        
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        shared.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+    
+    private Map<Integer, List<String>> postingsOf(FactKind kind) {
+        return postings.computeIfAbsent(kind, k -> {
+            Map<Integer, List<String>> built = new HashMap<>();
+            facts.get(k).forEach((repo, ids) -> {
+                for (int id : ids.toArray()) {
+                    built.computeIfAbsent(id, i -> new ArrayList<>(2)).add(repo);
+                }
+            });
+            return built;
+        });
+    }
+    
+    /**
+     * Limits the near-duplicate index to the pairs of repositories that are compared, so
+     * files of two repositories that are never compared are not counted against each other
+     * 
+     * @param comparedPairs Each repository mapped to the ones it is compared with
+     */
+    public synchronized void setComparedPairs(Map<String, Set<String>> comparedPairs) {
+        this.comparedPairs = comparedPairs;
+        nearDuplicates = null;
+    }
+    
+    /**
+     * Near-duplicate source files across the compared pairs, or across all indexed
+     * repositories if no pairs were set; built on first use
+     * 
+     * @param threshold Minimum similarity of a reported file pair
+     */
+    public synchronized NearDuplicateIndex nearDuplicates(double threshold) {
+        if (nearDuplicates == null || nearDuplicates.getThreshold() != threshold) {
+            Map<String, Set<String>> pairs = comparedPairs;
+            if (pairs == null) {
+                pairs = new LinkedHashMap<>();
+                for (String name : repositories.keySet()) {
+                    pairs.put(name, repositories.keySet());
+                }
+            }
+            nearDuplicates = new NearDuplicateIndex(repositories.values(), pairs, threshold);
+        }
+        return nearDuplicates;
+    }
+    
+    /**
+     * Strips the config file prefix from a CONFIG_KEY fact
+     */
+    public static String configKeyName(String fact) {
+        return fact.substring(fact.indexOf(CONFIG_KEY_SEPARATOR) + 1);
+    }
+    
+    /**
+     * Returns the facts of one kind held by a repository. Per-file facts are read
+     * directly, so no repository-wide string sets are built for the index.
+     */
+    public static Collection<String> factsOf(FactKind kind, RepositoryFacts repo) {
+        List<String> result = new ArrayList<>();
+        switch (kind) {
+            case ARTIFACT:
+                result.addAll(repo.getLibraryDependencies().keySet());
+                result.addAll(repo.getTransitiveDependencies().keySet());
+                return result;
+            case IMPORT:
+                repo.getFiles().values().forEach(file -> result.addAll(file.getImports()));
+                return result;
+            case PACKAGE:
+                repo.getFiles().values().forEach(file -> {
+                    if (file.getPackageName() != null) {
+                        result.add(file.getPackageName());
+                    }
+                });
+                return result;
+            case FILE_PATH:
+                repo.getFiles().forEach((path, file) -> {
+                    if (file.isSourceFile()) {
+                        result.add(path);
+                    }
+                });
+                return result;
+            case CONTENT_HASH:
+                repo.getFiles().values().forEach(file -> {
+                    if (file.getContentHash() != null) {
+                        result.add(file.getContentHash());
+                    }
+                });
+                return result;
+            case CONFIG_FILE:
+                return repo.getConfigFiles().keySet();
+            case CONFIG_KEY:
+                repo.getConfigFiles().forEach((file, fileKeys) ->
+                    fileKeys.forEach(key -> result.add(file + CONFIG_KEY_SEPARATOR + key)));
+                return result;
+            case APPLICATION_NAME:
+                String applicationName = repo.getApplicationName();
+                return applicationName != null ? List.of(applicationName) : Collections.emptyList();
+            case RESOURCE:
+                return repo.getResources();
+            default:
+                throw new IllegalArgumentException("Unknown fact kind: " + kind);
+        }
+    }
+}
+
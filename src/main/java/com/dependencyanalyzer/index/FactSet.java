@@ -0,0 +1,238 @@
+package com.dependencyanalyzer.index;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed bitset of fact IDs, in the style of a roaring bitmap. IDs are
+ * grouped by their high 16 bits; each group holds its low 16 bits either as a sorted
+ * char array (sparse groups) or as a 65536-bit bitmap (dense groups). Overlap counts
+ * between bitmaps come from word-wise AND plus popcount.
+ */
+public final class FactSet {
+    
+    // Groups with more values than this are stored as bitmaps
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+    
+    public static final FactSet EMPTY = new FactSet(new int[0], new Object[0], 0);
+    
+    private final int[] keys;
+    private final Object[] containers; // char[] or long[] per key
+    private final int cardinality;
+    
+    private FactSet(int[] keys, Object[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+    
+    /**
+     * Builds a set from IDs sorted in ascending order without duplicates
+     */
+    public static FactSet of(int[] sortedIds) {
+        if (sortedIds.length == 0) {
+            return EMPTY;
+        }
+        
+        int[] keys = new int[sortedIds.length];
+        Object[] containers = new Object[sortedIds.length];
+        int groups = 0;
+        int start = 0;
+        while (start < sortedIds.length) {
+            int key = sortedIds[start] >>> 16;
+            int end = start;
+            while (end < sortedIds.length && sortedIds[end] >>> 16 == key) {
+                end++;
+            }
+            
+            int size = end - start;
+            if (size > ARRAY_LIMIT) {
+                long[] bitmap = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    int low = sortedIds[i] & 0xFFFF;
+                    bitmap[low >>> 6] |= 1L << low;
+                }
+                containers[groups] = bitmap;
+            } else {
+                char[] values = new char[size];
+                for (int i = start; i < end; i++) {
+                    values[i - start] = (char) sortedIds[i];
+                }
+                containers[groups] = values;
+            }
+            keys[groups++] = key;
+            start = end;
+        }
+        return new FactSet(Arrays.copyOf(keys, groups), Arrays.copyOf(containers, groups), sortedIds.length);
+    }
+    
+    /**
+     * Number of IDs in the set
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+    
+    /**
+     * All IDs, ascending
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof char[]) {
+                for (char low : (char[]) containers[i]) {
+                    result[count++] = high | low;
+                }
+            } else {
+                long[] bitmap = (long[]) containers[i];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = bitmap[w];
+                    while (word != 0) {
+                        result[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * The same IDs with every group stored as a bitmap. Worth it for a set that is
+     * counted against many others: each of their values then costs one bit test.
+     */
+    public FactSet toBitmaps() {
+        Object[] bitmaps = new Object[containers.length];
+        for (int i = 0; i < containers.length; i++) {
+            if (containers[i] instanceof long[]) {
+                bitmaps[i] = containers[i];
+            } else {
+                long[] bitmap = new long[BITMAP_WORDS];
+                for (char low : (char[]) containers[i]) {
+                    bitmap[low >>> 6] |= 1L << low;
+                }
+                bitmaps[i] = bitmap;
+            }
+        }
+        return new FactSet(keys, bitmaps, cardinality);
+    }
+    
+    /**
+     * Number of IDs in both sets, without building the intersection
+     */
+    public int andCardinality(FactSet other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += andCardinality(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * IDs in both sets, ascending; stops after the given number of IDs
+     */
+    public int[] and(FactSet other, int limit) {
+        int[] result = new int[Math.min(limit, Math.min(cardinality, other.cardinality))];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length && count < result.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                int high = keys[i] << 16;
+                Object a = containers[i];
+                Object b = other.containers[j];
+                // Walk an array side and probe the other
+                Object walked = a instanceof char[] ? a : b;
+                Object probed = walked == a ? b : a;
+                if (walked instanceof char[]) {
+                    for (char low : (char[]) walked) {
+                        if (count == result.length) {
+                            break;
+                        }
+                        if (contains(probed, low)) {
+                            result[count++] = high | low;
+                        }
+                    }
+                } else {
+                    long[] x = (long[]) a;
+                    long[] y = (long[]) b;
+                    for (int w = 0; w < BITMAP_WORDS && count < result.length; w++) {
+                        long word = x[w] & y[w];
+                        while (word != 0 && count < result.length) {
+                            result[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                            word &= word - 1;
+                        }
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+    
+    private static int andCardinality(Object a, Object b) {
+        if (a instanceof long[] && b instanceof long[]) {
+            long[] x = (long[]) a;
+            long[] y = (long[]) b;
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                count += Long.bitCount(x[w] & y[w]);
+            }
+            return count;
+        }
+        if (a instanceof char[] && b instanceof char[]) {
+            char[] x = (char[]) a;
+            char[] y = (char[]) b;
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < x.length && j < y.length) {
+                if (x[i] < y[j]) {
+                    i++;
+                } else if (x[i] > y[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+        
+        char[] values = (char[]) (a instanceof char[] ? a : b);
+        long[] bitmap = (long[]) (a instanceof long[] ? a : b);
+        int count = 0;
+        for (char low : values) {
+            if ((bitmap[low >>> 6] & (1L << low)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static boolean contains(Object container, char low) {
+        if (container instanceof long[]) {
+            return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, low) >= 0;
+    }
+}
+
@@ -0,0 +1,165 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.index.FactIndex.FactKind;
+
+import java.util.*;
+
+/**
+ * Approximate pre-pass that finds repository pairs likely to be similar before they
+ * are compared exactly. Each repository gets a MinHash signature over its imports,
+ * packages and config keys; locality-sensitive hashing over bands of the signatures
+ * picks candidate pairs, and a candidate is kept when its estimated Jaccard
+ * similarity reaches the threshold.
+ *
+ * Pairs below the threshold are very likely, but not guaranteed, to be dropped, and
+ * pairs above it are very likely, but not guaranteed, to be kept.
+ */
+public class MinHashIndex {
+    
+    private static final int SIGNATURE_SIZE = 128;
+    private static final List<FactKind> KINDS = Arrays.asList(FactKind.IMPORT, FactKind.PACKAGE, FactKind.CONFIG_KEY);
+    
+    // One seed per hash function, fixed so that candidates are the same on every run
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+    
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+    
+    private final double threshold;
+    private final int rows;
+    private final Map<String, int[]> signatures = new HashMap<>();
+    private final Map<String, Set<String>> candidates = new HashMap<>();
+    
+    /**
+     * @param repositories Names of the repositories to index, all present in the fact index
+     * @param threshold Minimum estimated Jaccard similarity of a candidate pair
+     */
+    public MinHashIndex(FactIndex index, Collection<String> repositories, double threshold) {
+        this.threshold = threshold;
+        this.rows = rowsPerBand(threshold);
+        
+        for (String repo : repositories) {
+            int[] signature = signatureOf(index, repo);
+            if (signature != null) {
+                signatures.put(repo, signature);
+            }
+        }
+        findCandidates();
+    }
+    
+    /**
+     * Whether two repositories are similar enough to be compared exactly
+     */
+    public boolean isCandidate(String repo1, String repo2) {
+        return candidates.getOrDefault(repo1, Collections.emptySet()).contains(repo2);
+    }
+    
+    /**
+     * Estimated Jaccard similarity of two repositories, 0 if either has no facts
+     */
+    public double estimateSimilarity(String repo1, String repo2) {
+        int[] a = signatures.get(repo1);
+        int[] b = signatures.get(repo2);
+        if (a == null || b == null) {
+            return 0;
+        }
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+    
+    /**
+     * MinHash signature over all indexed facts of a repository, or null when it has none
+     */
+    private static int[] signatureOf(FactIndex index, String repo) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        boolean empty = true;
+        for (FactKind kind : KINDS) {
+            for (int id : index.factIds(kind, repo)) {
+                empty = false;
+                for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                    int hash = (int) mix(id ^ SEEDS[i]) & Integer.MAX_VALUE;
+                    if (hash < signature[i]) {
+                        signature[i] = hash;
+                    }
+                }
+            }
+        }
+        return empty ? null : signature;
+    }
+    
+    /**
+     * Buckets every band of every signature; repositories sharing a bucket in at least
+     * one band are candidates if their estimated similarity reaches the threshold
+     */
+    private void findCandidates() {
+        List<String> names = new ArrayList<>(signatures.keySet());
+        Collections.sort(names);
+        
+        Set<String> checked = new HashSet<>();
+        for (int band = 0; band + rows <= SIGNATURE_SIZE; band += rows) {
+            Map<Long, List<String>> buckets = new HashMap<>();
+            for (String name : names) {
+                buckets.computeIfAbsent(bandHash(signatures.get(name), band), k -> new ArrayList<>()).add(name);
+            }
+            for (List<String> bucket : buckets.values()) {
+                for (int i = 0; i < bucket.size(); i++) {
+                    for (int j = i + 1; j < bucket.size(); j++) {
+                        String repo1 = bucket.get(i);
+                        String repo2 = bucket.get(j);
+                        if (checked.add(repo1 + '\u0000' + repo2) && estimateSimilarity(repo1, repo2) >= threshold) {
+                            candidates.computeIfAbsent(repo1, k -> new HashSet<>()).add(repo2);
+                            candidates.computeIfAbsent(repo2, k -> new HashSet<>()).add(repo1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private long bandHash(int[] signature, int start) {
+        long hash = 1;
+        for (int i = start; i < start + rows; i++) {
+            hash = mix(hash * 31 + signature[i]);
+        }
+        return hash;
+    }
+    
+    /**
+     * Rows per band whose LSH threshold, (1 / bands) ^ (1 / rows), is closest to the
+     * given one without exceeding it, so that pairs at the threshold are rarely missed
+     */
+    private static int rowsPerBand(double threshold) {
+        int best = 1;
+        for (int rows = 1; rows <= SIGNATURE_SIZE; rows++) {
+            int bands = SIGNATURE_SIZE / rows;
+            if (Math.pow(1.0 / bands, 1.0 / rows) <= threshold) {
+                best = rows;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * 64-bit finalizer of MurmurHash3
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE53A87CBL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
+
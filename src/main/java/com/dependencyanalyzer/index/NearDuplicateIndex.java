@@ -0,0 +1,171 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+
+import java.util.*;
+
+/**
+ * Pairs of source files in different repositories whose winnowing fingerprints mostly
+ * agree. Instead of comparing every pair of files, all (fingerprint, file) postings are
+ * sorted once and only files that share a fingerprint are counted against each other.
+ * Fingerprints found in many files (getters, boilerplate) are skipped, which keeps the
+ * pair counting close to linear in the number of postings. Only files of repositories
+ * that are compared with each other are indexed and counted against each other.
+ */
+public class NearDuplicateIndex {
+    
+    // Fingerprints shared by more files than this say nothing about copying
+    private static final int MAX_POSTINGS = 64;
+    
+    private final double threshold;
+    private final Map<String, List<FilePair>> pairs = new HashMap<>();
+    
+    /**
+     * @param repos Repositories to index
+     * @param comparedPairs Each repository mapped to the ones it is compared with, in either
+     *                      direction; repositories in no pair are not indexed
+     * @param threshold Minimum Jaccard similarity of the fingerprint sets of a reported pair
+     */
+    public NearDuplicateIndex(Collection<RepositoryFacts> repos, Map<String, ? extends Collection<String>> comparedPairs,
+                              double threshold) {
+        this.threshold = threshold;
+        
+        // Repositories numbered in the order they are indexed, with a matrix of the compared pairs
+        Map<String, Integer> repoNumbers = new HashMap<>();
+        comparedPairs.forEach((name, targets) -> {
+            repoNumbers.putIfAbsent(name, repoNumbers.size());
+            targets.forEach(target -> repoNumbers.putIfAbsent(target, repoNumbers.size()));
+        });
+        boolean[][] compared = new boolean[repoNumbers.size()][repoNumbers.size()];
+        comparedPairs.forEach((name, targets) -> targets.forEach(target -> {
+            if (!target.equals(name)) {
+                compared[repoNumbers.get(name)][repoNumbers.get(target)] = true;
+                compared[repoNumbers.get(target)][repoNumbers.get(name)] = true;
+            }
+        }));
+        
+        List<String> repoNames = new ArrayList<>();
+        List<Integer> fileRepos = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        List<FileFacts> files = new ArrayList<>();
+        int postingCount = 0;
+        for (RepositoryFacts repo : repos) {
+            Integer repoNumber = repoNumbers.get(repo.getName());
+            if (repoNumber == null) {
+                continue;
+            }
+            for (Map.Entry<String, FileFacts> entry : repo.getFiles().entrySet()) {
+                int[] fingerprints = entry.getValue().getFingerprints();
+                if (fingerprints != null && fingerprints.length > 0) {
+                    repoNames.add(repo.getName());
+                    fileRepos.add(repoNumber);
+                    paths.add(entry.getKey());
+                    files.add(entry.getValue());
+                    postingCount += fingerprints.length;
+                }
+            }
+        }
+        
+        // Fingerprint in the high half, file number in the low half, so sorting groups by fingerprint
+        long[] postings = new long[postingCount];
+        int count = 0;
+        for (int file = 0; file < files.size(); file++) {
+            for (int fingerprint : files.get(file).getFingerprints()) {
+                postings[count++] = ((long) fingerprint << 32) | file;
+            }
+        }
+        Arrays.sort(postings);
+        
+        int[] repoOfFile = fileRepos.stream().mapToInt(Integer::intValue).toArray();
+        Map<Long, Integer> shared = new HashMap<>();
+        int start = 0;
+        while (start < postings.length) {
+            int end = start + 1;
+            while (end < postings.length && postings[end] >>> 32 == postings[start] >>> 32) {
+                end++;
+            }
+            if (end - start <= MAX_POSTINGS) {
+                for (int i = start; i < end; i++) {
+                    for (int j = i + 1; j < end; j++) {
+                        int file1 = (int) postings[i];
+                        int file2 = (int) postings[j];
+                        if (compared[repoOfFile[file1]][repoOfFile[file2]]) {
+                            shared.merge(((long) file1 << 32) | file2, 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+            start = end;
+        }
+        
+        shared.forEach((key, common) -> {
+            int file1 = (int) (key >>> 32);
+            int file2 = (int) (long) key;
+            FileFacts facts1 = files.get(file1);
+            FileFacts facts2 = files.get(file2);
+            // Identical files are already reported by their content hash
+            if (facts1.getContentHash() != null && facts1.getContentHash().equals(facts2.getContentHash())) {
+                return;
+            }
+            double similarity = (double) common
+                / (facts1.getFingerprints().length + facts2.getFingerprints().length - common);
+            if (similarity >= threshold) {
+                FilePair pair = new FilePair(paths.get(file1), paths.get(file2), similarity);
+                pairs.computeIfAbsent(repoNames.get(file1) + '\u0000' + repoNames.get(file2), k -> new ArrayList<>())
+                    .add(pair);
+                pairs.computeIfAbsent(repoNames.get(file2) + '\u0000' + repoNames.get(file1), k -> new ArrayList<>())
+                    .add(pair.reversed());
+            }
+        });
+        pairs.values().forEach(list -> list.sort(Comparator.comparingDouble(FilePair::getSimilarity).reversed()
+            .thenComparing(FilePair::getSourcePath)
+            .thenComparing(FilePair::getTargetPath)));
+    }
+    
+    public double getThreshold() {
+        return threshold;
+    }
+    
+    /**
+     * Near-duplicate files of two repositories, most similar first
+     */
+    public List<FilePair> between(String sourceRepo, String targetRepo) {
+        return pairs.getOrDefault(sourceRepo + '\u0000' + targetRepo, Collections.emptyList());
+    }
+    
+    /**
+     * Two similar files, one in each repository
+     */
+    public static class FilePair {
+        private final String sourcePath;
+        private final String targetPath;
+        private final double similarity;
+        
+        FilePair(String sourcePath, String targetPath, double similarity) {
+            this.sourcePath = sourcePath;
+            this.targetPath = targetPath;
+            this.similarity = similarity;
+        }
+        
+        public String getSourcePath() {
+            return sourcePath;
+        }
+        
+        public String getTargetPath() {
+            return targetPath;
+        }
+        
+        /**
+         * Jaccard similarity of the two fingerprint sets
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+        
+        FilePair reversed() {
+            return new FilePair(targetPath, sourcePath, similarity);
+        }
+    }
+}
+
@@ -0,0 +1,89 @@
+package com.dependencyanalyzer.index;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbers fact strings with dense int IDs shared by all repositories of a run, so
+ * per-repository fact sets become sorted int arrays that can be intersected without
+ * comparing strings. The scanner also passes every extracted fact string through
+ * {@link #canonical(String)}, so the facts of all files and repositories share one
+ * instance per distinct string and the table adds no copies of its own.
+ */
+public class SymbolTable {
+    
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+    // Read by scanner threads without taking the lock
+    private final Map<String, String> canonical = new ConcurrentHashMap<>();
+    
+    /**
+     * Returns the ID of a string, assigning the next free one on first sight
+     */
+    public synchronized int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            symbol = canonical(symbol);
+            id = symbols.size();
+            ids.put(symbol, id);
+            symbols.add(symbol);
+        }
+        return id;
+    }
+    
+    /**
+     * Returns the instance of a string held by the table, adding it on first sight. No ID
+     * is assigned, so IDs keep following the order facts are indexed in, whatever order
+     * parallel scans extract them in.
+     */
+    public String canonical(String symbol) {
+        String existing = canonical.putIfAbsent(symbol, symbol);
+        return existing != null ? existing : symbol;
+    }
+    
+    /**
+     * Returns the ID of a string without interning it, or -1 if it was never seen
+     */
+    public synchronized int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+    
+    /**
+     * Returns the string behind an ID
+     */
+    public synchronized String symbol(int id) {
+        return symbols.get(id);
+    }
+    
+    /**
+     * Number of distinct strings interned so far
+     */
+    public synchronized int size() {
+        return symbols.size();
+    }
+    
+    /**
+     * Interns every string and returns their IDs sorted, without duplicates
+     */
+    public int[] internAll(Iterable<String> facts) {
+        int[] result = new int[16];
+        int count = 0;
+        for (String fact : facts) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, count * 2);
+            }
+            result[count++] = intern(fact);
+        }
+        
+        Arrays.sort(result, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[i] != result[distinct - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+}
+
@@ -0,0 +1,79 @@
+package com.dependencyanalyzer.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of an analysis run together with the per-file facts it was computed from,
+ * so a later run can re-extract only changed files
+ */
+public class AnalysisSnapshot {
+    private String sourceRepo; // null for all-pairs runs
+    private String settings;
+    private Map<String, String> repositories;
+    private Map<String, Map<String, FileFacts>> files;
+    private List<DependencyInfo> dependencies;
+
+    public AnalysisSnapshot() {
+        this.repositories = new LinkedHashMap<>();
+        this.files = new LinkedHashMap<>();
+        this.dependencies = new ArrayList<>();
+    }
+
+    // Getters and Setters
+    public String getSourceRepo() {
+        return sourceRepo;
+    }
+
+    public void setSourceRepo(String sourceRepo) {
+        this.sourceRepo = sourceRepo;
+    }
+
+    /**
+     * Options the facts were extracted and the pairs compared with, in a stable string form
+     */
+    public String getSettings() {
+        return settings;
+    }
+
+    public void setSettings(String settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Repository names mapped to their paths, in comparison order
+     */
+    public Map<String, String> getRepositories() {
+        return repositories;
+    }
+
+    public void setRepositories(Map<String, String> repositories) {
+        this.repositories = repositories;
+    }
+
+    /**
+     * Repository names mapped to their per-file facts
+     */
+    public Map<String, Map<String, FileFacts>> getFiles() {
+        return files;
+    }
+
+    public void setFiles(Map<String, Map<String, FileFacts>> files) {
+        this.files = files;
+    }
+
+    public List<DependencyInfo> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(List<DependencyInfo> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    public boolean isAllPairs() {
+        return sourceRepo == null;
+    }
+}
+
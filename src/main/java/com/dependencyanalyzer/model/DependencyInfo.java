@@ -14,6 +14,7 @@ public class DependencyInfo {
     private String description;
     private List<String> details;
     private int strength; // 1-10 scale indicating dependency strength
+    private String analyzer; // Class name of the analyzer that reported it
 
     public DependencyInfo(String sourceRepo, String targetRepo, DependencyType type, String description) {
         this.sourceRepo = sourceRepo;
@@ -76,6 +77,17 @@ public class DependencyInfo {
         this.details.add(detail);
     }
 
+    /**
+     * Class name of the analyzer that reported the dependency, set when it is reported
+     */
+    public String getAnalyzer() {
+        return analyzer;
+    }
+
+    public void setAnalyzer(String analyzer) {
+        this.analyzer = analyzer;
+    }
+
     public int getStrength() {
         return strength;
     }
@@ -0,0 +1,60 @@
+package com.dependencyanalyzer.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single @FeignClient declaration and all of its attributes, as written in the source
+ */
+public class FeignClientDefinition {
+    private Map<String, String> attributes;
+
+    public FeignClientDefinition() {
+        this.attributes = new LinkedHashMap<>();
+    }
+
+    public FeignClientDefinition(Map<String, String> attributes) {
+        this.attributes = new LinkedHashMap<>(attributes);
+    }
+
+    /**
+     * Service name from the name attribute, falling back to value and the legacy serviceId
+     */
+    public String getName() {
+        String name = attributes.get("name");
+        if (name == null || name.isEmpty()) {
+            name = attributes.get("value");
+        }
+        if (name == null || name.isEmpty()) {
+            name = attributes.get("serviceId");
+        }
+        return name;
+    }
+
+    public String getUrl() {
+        return attributes.get("url");
+    }
+
+    public String getContextId() {
+        return attributes.get("contextId");
+    }
+
+    public String getPath() {
+        return attributes.get("path");
+    }
+
+    // Getters and Setters
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(Map<String, String> attributes) {
+        this.attributes = attributes;
+    }
+
+    @Override
+    public String toString() {
+        return "FeignClientDefinition" + attributes;
+    }
+}
+
@@ -0,0 +1,249 @@
+package com.dependencyanalyzer.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * Facts extracted from a single file during a repository scan
+ */
+public class FileFacts {
+    private boolean sourceFile;
+    private boolean configFile;
+    private boolean buildFile;
+    private String artifact;
+    private List<String> modules;
+    private String packageName;
+    private String contentHash;
+    private int[] fingerprints;
+    private List<String> imports;
+    private List<FeignClientDefinition> feignClients;
+    private Set<String> configKeys;
+    private Map<String, String> configValues;
+    private Set<String> resources;
+    private Map<String, String> dependencies;
+    private Map<String, Set<String>> exclusions;
+    private Set<String> buildInputs;
+    private Map<String, Set<String>> customFacts;
+
+    public FileFacts() {
+        this.imports = new ArrayList<>();
+        this.feignClients = new ArrayList<>();
+        this.modules = new ArrayList<>();
+        this.configKeys = new HashSet<>();
+        this.configValues = new LinkedHashMap<>();
+        this.resources = new TreeSet<>();
+        this.dependencies = new HashMap<>();
+        this.exclusions = new HashMap<>();
+        this.buildInputs = new TreeSet<>();
+        this.customFacts = new TreeMap<>();
+    }
+
+    // Getters and Setters
+    public boolean isSourceFile() {
+        return sourceFile;
+    }
+
+    public void setSourceFile(boolean sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public boolean isConfigFile() {
+        return configFile;
+    }
+
+    public void setConfigFile(boolean configFile) {
+        this.configFile = configFile;
+    }
+
+    public boolean isBuildFile() {
+        return buildFile;
+    }
+
+    public void setBuildFile(boolean buildFile) {
+        this.buildFile = buildFile;
+    }
+
+    /**
+     * groupId:artifactId of the project a build file describes
+     */
+    public String getArtifact() {
+        return artifact;
+    }
+
+    public void setArtifact(String artifact) {
+        this.artifact = artifact;
+    }
+
+    /**
+     * Modules a build file aggregates, as declared relative to it
+     */
+    public List<String> getModules() {
+        return modules;
+    }
+
+    public void addModule(String module) {
+        this.modules.add(module);
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    /**
+     * SHA-1 of the source file with whitespace and the package line normalized away,
+     * or null for files too small to compare
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Winnowing fingerprints of a Java source file for near-duplicate detection, or null
+     */
+    public int[] getFingerprints() {
+        return fingerprints;
+    }
+
+    public void setFingerprints(int[] fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+
+    public void addImport(String importStmt) {
+        this.imports.add(importStmt);
+    }
+
+    public List<FeignClientDefinition> getFeignClients() {
+        return feignClients;
+    }
+
+    public void addFeignClient(FeignClientDefinition client) {
+        this.feignClients.add(client);
+    }
+
+    public Set<String> getConfigKeys() {
+        return configKeys;
+    }
+
+    public void addConfigKey(String key) {
+        this.configKeys.add(key);
+    }
+
+    /**
+     * Config values keyed by their fully qualified dotted name, e.g. spring.application.name
+     */
+    public Map<String, String> getConfigValues() {
+        return configValues;
+    }
+
+    public void putConfigValue(String key, String value) {
+        this.configValues.put(key, value);
+    }
+
+    /**
+     * Infrastructure the file refers to, as kind:value before placeholders are resolved,
+     * e.g. jdbc:jdbc:mysql://db:3306/orders or kafka-topic:${orders.topic}
+     */
+    public Set<String> getResources() {
+        return resources;
+    }
+
+    public void addResource(String resource) {
+        this.resources.add(resource);
+    }
+
+    public Map<String, String> getDependencies() {
+        return dependencies;
+    }
+
+    public void putDependency(String key, String version) {
+        this.dependencies.put(key, version);
+    }
+
+    /**
+     * Artifacts a dependency's own dependencies are cut off at, keyed by the dependency,
+     * e.g. org.apache.kafka:kafka-clients -> [org.xerial.snappy:snappy-java]
+     */
+    public Map<String, Set<String>> getExclusions() {
+        return exclusions;
+    }
+
+    public void putExclusions(String key, Set<String> excluded) {
+        this.exclusions.put(key, excluded);
+    }
+
+    /**
+     * Files outside this one that the facts were derived from, e.g. parent POMs
+     */
+    public Set<String> getBuildInputs() {
+        return buildInputs;
+    }
+
+    /**
+     * Facts recorded by an analyzer plugged in from outside, under a key of its choosing,
+     * e.g. grpc-client -> orders.OrderService
+     */
+    public Set<String> getCustomFacts(String key) {
+        return customFacts.getOrDefault(key, Collections.emptySet());
+    }
+
+    public void addCustomFact(String key, String value) {
+        this.customFacts.computeIfAbsent(key, k -> new TreeSet<>()).add(value);
+    }
+
+    /**
+     * Replaces the fact strings with equal instances from a table shared by all files,
+     * so a string repeated across files and repositories is only held once
+     */
+    public void canonicalize(UnaryOperator<String> canonical) {
+        artifact = canonicalOrNull(artifact, canonical);
+        packageName = canonicalOrNull(packageName, canonical);
+        modules.replaceAll(canonical);
+        imports.replaceAll(canonical);
+        configKeys = canonicalSet(configKeys, new HashSet<>(), canonical);
+        resources = canonicalSet(resources, new TreeSet<>(), canonical);
+        buildInputs = canonicalSet(buildInputs, new TreeSet<>(), canonical);
+
+        Map<String, String> canonicalValues = new LinkedHashMap<>();
+        configValues.forEach((key, value) -> canonicalValues.put(canonical.apply(key), canonicalOrNull(value, canonical)));
+        configValues = canonicalValues;
+        Map<String, String> canonicalDependencies = new HashMap<>();
+        dependencies.forEach((key, version) -> canonicalDependencies.put(canonical.apply(key), canonicalOrNull(version, canonical)));
+        dependencies = canonicalDependencies;
+        Map<String, Set<String>> canonicalExclusions = new HashMap<>();
+        exclusions.forEach((key, excluded) -> canonicalExclusions.put(canonical.apply(key),
+            canonicalSet(excluded, new HashSet<>(), canonical)));
+        exclusions = canonicalExclusions;
+        customFacts.replaceAll((key, values) -> canonicalSet(values, new TreeSet<>(), canonical));
+    }
+
+    private static String canonicalOrNull(String value, UnaryOperator<String> canonical) {
+        return value != null ? canonical.apply(value) : null;
+    }
+
+    private static Set<String> canonicalSet(Set<String> values, Set<String> target, UnaryOperator<String> canonical) {
+        values.forEach(value -> target.add(canonical.apply(value)));
+        return target;
+    }
+}
+
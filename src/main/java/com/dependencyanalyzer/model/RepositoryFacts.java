@@ -0,0 +1,324 @@
+package com.dependencyanalyzer.model;
+
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Everything extracted from one repository in a single scan, keyed by relative file path
+ */
+public class RepositoryFacts {
+    private static final String POM_FILE = "pom.xml";
+    private static final List<String> ROOT_BUILD_FILES = Arrays.asList(POM_FILE, "settings.gradle.kts", "settings.gradle");
+    private static final List<String> MODULE_BUILD_FILES = Arrays.asList(POM_FILE, "build.gradle.kts", "build.gradle");
+    private static final String APPLICATION_NAME_KEY = "spring.application.name";
+    private static final String PROFILE_CONFIG_PREFIX = "application-";
+
+    private final String name;
+    private final String path;
+    private final Map<String, FileFacts> files;
+
+    // Repository-wide views, rebuilt from the per-file facts when they change
+    private boolean aggregated;
+    private Map<String, Set<String>> feignClients;
+    private List<FeignClientDefinition> feignClientDefinitions;
+    private Map<String, Set<String>> configFiles;
+    private Map<String, String> configValues;
+    private Map<String, String> libraryDependencies;
+    private Map<String, Set<String>> libraryExclusions;
+    private Map<String, Map<String, String>> moduleDependencies;
+
+    // Resolved separately from the files, only when transitive analysis is enabled
+    private Map<String, String> transitiveDependencies = new HashMap<>();
+    // Resolved separately from the files, once the config values are known
+    private Set<String> resources = new TreeSet<>();
+
+    public RepositoryFacts(String name, String path) {
+        this.name = name;
+        this.path = path;
+        this.files = new TreeMap<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public synchronized Map<String, FileFacts> getFiles() {
+        return files;
+    }
+
+    public synchronized void addFile(String relativePath, FileFacts facts) {
+        files.put(relativePath, facts);
+        aggregated = false;
+    }
+
+    public synchronized void removeFile(String relativePath) {
+        if (files.remove(relativePath) != null) {
+            aggregated = false;
+        }
+    }
+
+    /**
+     * Relative paths of all source files. Like imports and packages, these are built on
+     * each call rather than kept, since the fact index reads them from the files directly.
+     */
+    public synchronized Set<String> getSourceFiles() {
+        Set<String> sourceFiles = new HashSet<>();
+        files.forEach((relativePath, facts) -> {
+            if (facts.isSourceFile()) {
+                sourceFiles.add(relativePath);
+            }
+        });
+        return sourceFiles;
+    }
+
+    public synchronized Set<String> getImports() {
+        Set<String> imports = new HashSet<>();
+        files.values().forEach(facts -> imports.addAll(facts.getImports()));
+        return imports;
+    }
+
+    public synchronized Set<String> getPackages() {
+        Set<String> packages = new HashSet<>();
+        files.values().forEach(facts -> {
+            if (facts.getPackageName() != null) {
+                packages.add(facts.getPackageName());
+            }
+        });
+        return packages;
+    }
+
+    /**
+     * Custom facts recorded under a key in any file, see {@link FileFacts#getCustomFacts(String)}
+     */
+    public synchronized Set<String> getCustomFacts(String key) {
+        Set<String> customFacts = new TreeSet<>();
+        files.values().forEach(facts -> customFacts.addAll(facts.getCustomFacts(key)));
+        return customFacts;
+    }
+
+    public synchronized Map<String, Set<String>> getFeignClients() {
+        aggregate();
+        return feignClients;
+    }
+
+    /**
+     * Every @FeignClient declared in the repository
+     */
+    public synchronized List<FeignClientDefinition> getFeignClientDefinitions() {
+        aggregate();
+        return feignClientDefinitions;
+    }
+
+    public synchronized Map<String, Set<String>> getConfigFiles() {
+        aggregate();
+        return configFiles;
+    }
+
+    /**
+     * Config values of all config files; application.* files take precedence over others,
+     * and application-{profile}.* files over those
+     */
+    public synchronized Map<String, String> getConfigValues() {
+        aggregate();
+        return configValues;
+    }
+
+    /**
+     * The spring.application.name this repository registers under, or null
+     */
+    public synchronized String getApplicationName() {
+        aggregate();
+        return configValues.get(APPLICATION_NAME_KEY);
+    }
+
+    /**
+     * Library dependencies of all reactor modules; a library used with different
+     * versions keeps the version of the first module in reactor order
+     */
+    public synchronized Map<String, String> getLibraryDependencies() {
+        aggregate();
+        return libraryDependencies;
+    }
+
+    /**
+     * Exclusions declared on the library dependencies, keyed by library. An artifact
+     * only counts as excluded if every module using the library excludes it.
+     */
+    public synchronized Map<String, Set<String>> getLibraryExclusions() {
+        aggregate();
+        return libraryExclusions;
+    }
+
+    /**
+     * Libraries reached only through other libraries, empty unless resolved
+     */
+    public synchronized Map<String, String> getTransitiveDependencies() {
+        return transitiveDependencies;
+    }
+
+    public synchronized void setTransitiveDependencies(Map<String, String> transitiveDependencies) {
+        this.transitiveDependencies = transitiveDependencies;
+    }
+
+    /**
+     * Normalized databases, caches, brokers, topics and queues the repository uses,
+     * empty unless resolved
+     */
+    public synchronized Set<String> getResources() {
+        return resources;
+    }
+
+    public synchronized void setResources(Set<String> resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * Library dependencies per reactor module, keyed by the module's groupId:artifactId
+     */
+    public synchronized Map<String, Map<String, String>> getModuleDependencies() {
+        aggregate();
+        return moduleDependencies;
+    }
+
+    private void aggregate() {
+        if (aggregated) {
+            return;
+        }
+
+        feignClients = new HashMap<>();
+        feignClientDefinitions = new ArrayList<>();
+        configFiles = new HashMap<>();
+        configValues = new HashMap<>();
+        libraryDependencies = new HashMap<>();
+        libraryExclusions = new HashMap<>();
+        moduleDependencies = new LinkedHashMap<>();
+        List<FileFacts> profileConfigs = new ArrayList<>();
+
+        for (Map.Entry<String, FileFacts> entry : files.entrySet()) {
+            String relativePath = entry.getKey();
+            FileFacts facts = entry.getValue();
+
+            feignClientDefinitions.addAll(facts.getFeignClients());
+            for (FeignClientDefinition client : facts.getFeignClients()) {
+                Set<String> urls = feignClients.computeIfAbsent(client.getName(), k -> new HashSet<>());
+                if (client.getUrl() != null && !client.getUrl().isEmpty()) {
+                    urls.add(client.getUrl());
+                }
+            }
+            if (facts.isConfigFile()) {
+                configFiles.put(relativePath, facts.getConfigKeys());
+                String fileName = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+                if (fileName.startsWith(PROFILE_CONFIG_PREFIX)) {
+                    profileConfigs.add(facts);
+                    continue;
+                }
+                if (fileName.startsWith("application")) {
+                    configValues.putAll(facts.getConfigValues());
+                } else {
+                    facts.getConfigValues().forEach(configValues::putIfAbsent);
+                }
+            }
+        }
+        // Profile files override the default ones, as in Spring
+        for (FileFacts facts : profileConfigs) {
+            configValues.putAll(facts.getConfigValues());
+        }
+
+        List<FileFacts> reactor = reactorBuildFiles();
+        Set<String> reactorArtifacts = new HashSet<>();
+        reactor.forEach(module -> reactorArtifacts.add(module.getArtifact()));
+        for (FileFacts module : reactor) {
+            // Gradle settings files only list the projects
+            if (module.getArtifact() == null) {
+                continue;
+            }
+            // Dependencies between modules of the same reactor are not libraries
+            Map<String, String> libraries = new LinkedHashMap<>(module.getDependencies());
+            libraries.keySet().removeAll(reactorArtifacts);
+            moduleDependencies.put(module.getArtifact(), libraries);
+            libraries.forEach(libraryDependencies::putIfAbsent);
+            for (String library : libraries.keySet()) {
+                Set<String> excluded = new TreeSet<>(module.getExclusions().getOrDefault(library, Collections.emptySet()));
+                libraryExclusions.merge(library, excluded, (all, more) -> {
+                    all.retainAll(more);
+                    return all;
+                });
+            }
+        }
+        aggregated = true;
+    }
+
+    /**
+     * Build files of the reactor: the root pom.xml (or Gradle settings file) and the
+     * modules it lists, recursively. Without one, every build file that is not itself
+     * a module of another one is treated as a reactor root.
+     */
+    private List<FileFacts> reactorBuildFiles() {
+        Deque<String> pending = new ArrayDeque<>();
+        ROOT_BUILD_FILES.stream().filter(files::containsKey).findFirst().ifPresent(pending::add);
+        if (pending.isEmpty()) {
+            Set<String> modules = new HashSet<>();
+            files.forEach((relativePath, facts) -> {
+                if (facts.isBuildFile()) {
+                    facts.getModules().forEach(module -> modules.add(modulePath(relativePath, module)));
+                }
+            });
+            files.forEach((relativePath, facts) -> {
+                if (facts.isBuildFile() && !modules.contains(relativePath)) {
+                    pending.add(relativePath);
+                }
+            });
+        }
+
+        List<FileFacts> reactor = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String relativePath = pending.poll();
+            FileFacts facts = files.get(relativePath);
+            if (facts == null || !facts.isBuildFile() || !visited.add(relativePath)) {
+                continue;
+            }
+            reactor.add(facts);
+            facts.getModules().forEach(module -> pending.add(modulePath(relativePath, module)));
+        }
+        return reactor;
+    }
+
+    /**
+     * Relative path of a module's build file, given the build file that declares it
+     */
+    private String modulePath(String buildFile, String module) {
+        int index = buildFile.lastIndexOf('/');
+        String dir = index >= 0 ? buildFile.substring(0, index + 1) : "";
+        if (module.trim().endsWith(".xml")) {
+            return normalize(dir + module.trim());
+        }
+        String moduleDir = dir + module.trim() + "/";
+        return MODULE_BUILD_FILES.stream()
+            .map(name -> normalize(moduleDir + name))
+            .filter(files::containsKey)
+            .findFirst()
+            .orElse(normalize(moduleDir + POM_FILE));
+    }
+
+    private static String normalize(String path) {
+        return Paths.get(path).normalize().toString().replace('\\', '/');
+    }
+}
+
@@ -0,0 +1,115 @@
+package com.dependencyanalyzer.scanner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Files changed since a previous analysis, grouped by repository and
+ * given as paths relative to the repository root
+ */
+public class ChangeSet {
+    
+    private final Map<String, Set<String>> changedFiles = new LinkedHashMap<>();
+    
+    /**
+     * Collects the files changed between two commits with git diff. Renames are listed
+     * as a deletion of the old path and an addition of the new one, so the facts of
+     * the old path are dropped.
+     * 
+     * @param repos Map of repository names to their paths
+     * @param fromRef Commit of the previous analysis
+     * @param toRef Commit to compare with, or null for the working tree
+     */
+    public static ChangeSet fromGitDiff(Map<String, String> repos, String fromRef, String toRef) throws IOException {
+        ChangeSet changes = new ChangeSet();
+        
+        for (Map.Entry<String, String> entry : repos.entrySet()) {
+            List<String> command = new ArrayList<>(List.of(
+                "git", "-C", entry.getValue(), "diff", "--name-only", "--no-renames", "--relative", fromRef));
+            if (toRef != null) {
+                command.add(toRef);
+            }
+            
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            List<String> output = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.add(line.trim());
+                }
+            }
+            
+            try {
+                if (process.waitFor() != 0) {
+                    throw new IOException("git diff failed in " + entry.getValue() + ": " + String.join(" ", output));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while running git diff in " + entry.getValue(), e);
+            }
+            
+            output.stream()
+                .filter(line -> !line.isEmpty())
+                .forEach(line -> changes.add(entry.getKey(), line));
+        }
+        
+        return changes;
+    }
+    
+    /**
+     * Reads changed file paths, one per line, and assigns each to the repository containing it
+     * 
+     * @param repos Map of repository names to their paths
+     * @param pathList File listing absolute paths or paths relative to the working directory
+     */
+    public static ChangeSet fromPathList(Map<String, String> repos, String pathList) throws IOException {
+        ChangeSet changes = new ChangeSet();
+        
+        Map<String, Path> repoRoots = new LinkedHashMap<>();
+        repos.forEach((name, path) -> repoRoots.put(name, Paths.get(path).toAbsolutePath().normalize()));
+        
+        for (String line : Files.readAllLines(Paths.get(pathList), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            
+            Path changed = Paths.get(line).toAbsolutePath().normalize();
+            for (Map.Entry<String, Path> root : repoRoots.entrySet()) {
+                if (changed.startsWith(root.getValue())) {
+                    changes.add(root.getKey(), root.getValue().relativize(changed).toString());
+                    break;
+                }
+            }
+        }
+        
+        return changes;
+    }
+    
+    public void add(String repoName, String relativePath) {
+        changedFiles.computeIfAbsent(repoName, k -> new TreeSet<>()).add(relativePath.replace("\\", "/"));
+    }
+    
+    /**
+     * Names of the repositories with at least one changed file
+     */
+    public Set<String> getRepositories() {
+        return changedFiles.keySet();
+    }
+    
+    public Set<String> getChangedFiles(String repoName) {
+        return changedFiles.getOrDefault(repoName, Collections.emptySet());
+    }
+    
+    public boolean isEmpty() {
+        return changedFiles.isEmpty();
+    }
+}
+
@@ -0,0 +1,207 @@
+package com.dependencyanalyzer.scanner;
+
+import com.dependencyanalyzer.model.FileFacts;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persistent cache of per-file facts, stored as one JSON file per repository.
+ * An entry is reused when the file size and modification time are unchanged, or
+ * when they changed but the content hash did not (e.g. after a fresh checkout).
+ * Entries derived from other files as well, such as a POM and its parents, are
+ * discarded when any of those files changed. Extraction settings, such as the selected
+ * profiles, are stored with the entries; a cache written with other settings is discarded.
+ */
+public class ExtractionCache {
+    
+    // Bump whenever extraction logic changes so stale facts are discarded
+    private static final int FORMAT_VERSION = 18;
+    
+    private final Path cacheDir;
+    private final String settings;
+    private final Gson gson = new Gson();
+    
+    /**
+     * @param settings Options that change what is extracted, in any stable string form
+     */
+    public ExtractionCache(String cacheDir, String settings) {
+        this.cacheDir = Paths.get(cacheDir);
+        this.settings = settings;
+    }
+    
+    /**
+     * Loads the cached entries of one repository
+     */
+    public Session open(String repoName, String repoPath) {
+        Path cacheFile = cacheDir.resolve(repoName + "-" + sha1(repoPath).substring(0, 12) + ".json");
+        CacheFile cached = null;
+        
+        if (Files.exists(cacheFile)) {
+            try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                cached = gson.fromJson(reader, CacheFile.class);
+            } catch (IOException | JsonParseException e) {
+                System.err.println("Ignoring unreadable cache file " + cacheFile + ": " + e.getMessage());
+            }
+        }
+        
+        Map<String, CacheEntry> entries = cached != null && cached.version == FORMAT_VERSION
+            && settings.equals(cached.settings) && cached.entries != null
+            ? cached.entries
+            : new HashMap<>();
+        return new Session(cacheFile, entries);
+    }
+    
+    /**
+     * Cache state for a single repository scan
+     */
+    public class Session {
+        private final Path cacheFile;
+        private final Map<String, CacheEntry> previous;
+        private final Map<String, CacheEntry> current = new TreeMap<>();
+        
+        private Session(Path cacheFile, Map<String, CacheEntry> previous) {
+            this.cacheFile = cacheFile;
+            this.previous = previous;
+        }
+        
+        /**
+         * Returns the cached facts for a file if it has not changed, otherwise null
+         */
+        public FileFacts get(SourceFile file, BasicFileAttributes attrs) {
+            CacheEntry entry = previous.get(file.getRelativePath());
+            if (entry == null) {
+                return null;
+            }
+            
+            long size = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            if (entry.size != size || entry.lastModified != lastModified) {
+                if (entry.hash == null) {
+                    return null;
+                }
+                try {
+                    if (!entry.hash.equals(sha1(file.getBytes()))) {
+                        return null;
+                    }
+                } catch (IOException e) {
+                    return null;
+                }
+                entry.size = size;
+                entry.lastModified = lastModified;
+            }
+            if (entry.inputs != null) {
+                for (Map.Entry<String, Long> input : entry.inputs.entrySet()) {
+                    if (lastModified(input.getKey()) != input.getValue()) {
+                        return null;
+                    }
+                }
+            }
+            
+            current.put(file.getRelativePath(), entry);
+            return entry.facts;
+        }
+        
+        /**
+         * Records freshly extracted facts for a file
+         */
+        public void put(SourceFile file, BasicFileAttributes attrs, FileFacts facts) {
+            CacheEntry entry = new CacheEntry();
+            entry.size = attrs.size();
+            entry.lastModified = attrs.lastModifiedTime().toMillis();
+            // Files whose content no analyzer needed are matched on size and mtime only
+            if (file.isLoaded()) {
+                try {
+                    entry.hash = sha1(file.getBytes());
+                } catch (IOException e) {
+                    entry.hash = null;
+                }
+            }
+            if (!facts.getBuildInputs().isEmpty()) {
+                entry.inputs = new TreeMap<>();
+                for (String input : facts.getBuildInputs()) {
+                    entry.inputs.put(input, lastModified(input));
+                }
+            }
+            entry.facts = facts;
+            current.put(file.getRelativePath(), entry);
+        }
+        
+        /**
+         * Writes the entries seen in this scan, dropping files that no longer exist
+         */
+        public void save() {
+            CacheFile out = new CacheFile();
+            out.version = FORMAT_VERSION;
+            out.settings = settings;
+            out.entries = current;
+            
+            try {
+                Files.createDirectories(cacheDir);
+                Path tempFile = Files.createTempFile(cacheDir, cacheFile.getFileName().toString(), ".tmp");
+                try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                    gson.toJson(out, writer);
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Error writing cache file " + cacheFile + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    // Modification time of a file, or -1 when it does not exist
+    private static long lastModified(String path) {
+        try {
+            return Files.getLastModifiedTime(Paths.get(path)).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+    
+    private static String sha1(String value) {
+        return sha1(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String sha1(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(bytes)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+    
+    // JSON layout of a cache file
+    private static class CacheFile {
+        int version;
+        String settings;
+        Map<String, CacheEntry> entries;
+    }
+    
+    private static class CacheEntry {
+        long size;
+        long lastModified;
+        String hash;
+        Map<String, Long> inputs;
+        FileFacts facts;
+    }
+}
+
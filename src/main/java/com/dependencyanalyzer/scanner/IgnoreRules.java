@@ -0,0 +1,238 @@
+package com.dependencyanalyzer.scanner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which files and directories a repository scan skips: build output and tool
+ * directories by default, a configurable exclude list, and the .gitignore files of the
+ * repository. All of them use .gitignore syntax; later rules override earlier ones, and
+ * a .gitignore deeper in the tree overrides the ones above it.
+ *
+ * Ignored directories are pruned as a whole, so nothing below them is visited. As in
+ * git, a file inside an ignored directory cannot be re-included by a negated pattern.
+ */
+public class IgnoreRules {
+    
+    public static final List<String> DEFAULT_EXCLUDES = Arrays.asList(
+        "target/", "build/", ".git/", "node_modules/", ".idea/", ".gradle/");
+    
+    private static final String GITIGNORE_FILE = ".gitignore";
+    
+    // Defaults and configured excludes, relative to every repository root
+    private final List<Rule> excludes;
+    
+    /**
+     * @param excludes Additional patterns in .gitignore syntax, applied after the defaults
+     */
+    public IgnoreRules(Collection<String> excludes) {
+        List<String> patterns = new ArrayList<>(DEFAULT_EXCLUDES);
+        patterns.addAll(excludes);
+        this.excludes = parse(patterns);
+    }
+    
+    /**
+     * Starts a walk over one repository
+     */
+    public Walk walk(Path root) {
+        return new Walk(root);
+    }
+    
+    /**
+     * Whether a file, given relative to the repository root, is ignored by the rules that
+     * apply to it, including every .gitignore on the way to it
+     */
+    public boolean isIgnored(Path root, String relativePath) {
+        Walk walk = walk(root);
+        walk.enterDirectory(root);
+        Path dir = root;
+        String[] names = relativePath.split("/");
+        for (int i = 0; i < names.length - 1; i++) {
+            dir = dir.resolve(names[i]);
+            if (!walk.enterDirectory(dir)) {
+                return true;
+            }
+        }
+        return walk.isIgnored(root.resolve(relativePath), false);
+    }
+    
+    /**
+     * Rule state of one walk over a repository. Directories must be entered and exited in
+     * walk order, so that the .gitignore files of the current directory's ancestors apply.
+     */
+    public class Walk {
+        private final Path root;
+        private final Deque<IgnoreFile> ignoreFiles = new ArrayDeque<>();
+        
+        private Walk(Path root) {
+            this.root = root;
+        }
+        
+        /**
+         * Enters a directory and loads its .gitignore
+         *
+         * @return False if the directory is ignored and should not be walked
+         */
+        public boolean enterDirectory(Path dir) {
+            if (!dir.equals(root) && isIgnored(dir, true)) {
+                return false;
+            }
+            Path gitignore = dir.resolve(GITIGNORE_FILE);
+            if (Files.isRegularFile(gitignore)) {
+                try {
+                    ignoreFiles.push(new IgnoreFile(dir, parse(Files.readAllLines(gitignore, StandardCharsets.UTF_8))));
+                } catch (IOException e) {
+                    System.err.println("Error reading " + gitignore + ": " + e.getMessage());
+                }
+            }
+            return true;
+        }
+        
+        public void exitDirectory(Path dir) {
+            if (!ignoreFiles.isEmpty() && ignoreFiles.peek().dir.equals(dir)) {
+                ignoreFiles.pop();
+            }
+        }
+        
+        /**
+         * Whether a file or directory in the current directory is ignored
+         */
+        public boolean isIgnored(Path path, boolean directory) {
+            Boolean ignored = match(excludes, relativize(root, path), directory);
+            // Deepest .gitignore last, so it has the final say
+            Iterator<IgnoreFile> outermostFirst = ignoreFiles.descendingIterator();
+            while (outermostFirst.hasNext()) {
+                IgnoreFile ignoreFile = outermostFirst.next();
+                Boolean matched = match(ignoreFile.rules, relativize(ignoreFile.dir, path), directory);
+                if (matched != null) {
+                    ignored = matched;
+                }
+            }
+            return ignored != null && ignored;
+        }
+    }
+    
+    /**
+     * Result of the last matching rule: true if it ignores, false if it re-includes, null if none matches
+     */
+    private static Boolean match(List<Rule> rules, String relativePath, boolean directory) {
+        String name = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        Boolean ignored = null;
+        for (Rule rule : rules) {
+            if (rule.directoryOnly && !directory) {
+                continue;
+            }
+            if (rule.pattern.matcher(rule.anchored ? relativePath : name).matches()) {
+                ignored = !rule.negated;
+            }
+        }
+        return ignored;
+    }
+    
+    private static String relativize(Path dir, Path path) {
+        return dir.relativize(path).toString().replace('\\', '/');
+    }
+    
+    private static List<Rule> parse(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            String pattern = line.trim();
+            if (pattern.isEmpty() || pattern.startsWith("#")) {
+                continue;
+            }
+            
+            boolean negated = pattern.startsWith("!");
+            if (negated) {
+                pattern = pattern.substring(1);
+            } else if (pattern.startsWith("\\")) {
+                pattern = pattern.substring(1); // Escaped leading '#' or '!'
+            }
+            boolean directoryOnly = pattern.endsWith("/");
+            if (directoryOnly) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            // A slash anywhere but at the end ties the pattern to the .gitignore's directory
+            boolean anchored = pattern.contains("/");
+            if (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            if (!pattern.isEmpty()) {
+                rules.add(new Rule(globToRegex(pattern), negated, directoryOnly, anchored));
+            }
+        }
+        return rules;
+    }
+    
+    /**
+     * Translates a .gitignore glob: '*' and '?' stay within one path segment, '**' spans
+     * segments, and [...] is a character class
+     */
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 3;
+            } else if (glob.startsWith("/**", i) && i + 3 == glob.length()) {
+                regex.append("/.*");
+                i += 3;
+            } else if (glob.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+                i++;
+            } else if (c == '?') {
+                regex.append("[^/]");
+                i++;
+            } else if (c == '[' && glob.indexOf(']', i + 1) > i + 1) {
+                int end = glob.indexOf(']', i + 1);
+                String set = glob.substring(i + 1, end);
+                if (set.startsWith("!")) {
+                    set = "^" + set.substring(1);
+                }
+                regex.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                i = end + 1;
+            } else if (c == '\\' && i + 1 < glob.length()) {
+                regex.append(Pattern.quote(String.valueOf(glob.charAt(i + 1))));
+                i += 2;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+                i++;
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+    
+    private static class Rule {
+        final Pattern pattern;
+        final boolean negated;
+        final boolean directoryOnly;
+        final boolean anchored;
+        
+        Rule(Pattern pattern, boolean negated, boolean directoryOnly, boolean anchored) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.anchored = anchored;
+        }
+    }
+    
+    // Rules of one .gitignore, which apply below its directory
+    private static class IgnoreFile {
+        final Path dir;
+        final List<Rule> rules;
+        
+        IgnoreFile(Path dir, List<Rule> rules) {
+            this.dir = dir;
+            this.rules = rules;
+        }
+    }
+}
+
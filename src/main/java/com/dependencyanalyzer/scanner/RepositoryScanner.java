@@ -0,0 +1,208 @@
+package com.dependencyanalyzer.scanner;
+
+import com.dependencyanalyzer.analyzer.Analyzer;
+import com.dependencyanalyzer.index.SymbolTable;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Walks a repository once and hands every file to each analyzer that wants it
+ */
+public class RepositoryScanner {
+    
+    private final List<Analyzer> analyzers;
+    // Analyzers by the file extension they read, in registration order
+    private final Map<String, List<Analyzer>> analyzersByType = new ConcurrentHashMap<>();
+    private ExtractionCache cache;
+    private SymbolTable symbols;
+    private IgnoreRules ignoreRules = new IgnoreRules(Collections.emptyList());
+    
+    /**
+     * @param analyzers Analyzers to extract facts for, each offered the file types it declares
+     */
+    public RepositoryScanner(List<Analyzer> analyzers) {
+        this.analyzers = new ArrayList<>(analyzers);
+    }
+    
+    /**
+     * Enables the persistent extraction cache (null disables it)
+     */
+    public void setCache(ExtractionCache cache) {
+        this.cache = cache;
+    }
+    
+    /**
+     * Sets the table extracted fact strings are canonicalized with (null keeps them as extracted)
+     */
+    public void setSymbolTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+    
+    /**
+     * Sets the rules for files and directories that scans skip
+     */
+    public void setIgnoreRules(IgnoreRules ignoreRules) {
+        this.ignoreRules = ignoreRules;
+    }
+    
+    /**
+     * Scans a repository, naming it after its directory
+     */
+    public RepositoryFacts scan(String repoPath) {
+        return scan(new File(repoPath).getName(), repoPath);
+    }
+    
+    /**
+     * Scans a repository and extracts the facts needed by all analyzers
+     */
+    public RepositoryFacts scan(String repoName, String repoPath) {
+        RepositoryFacts repoFacts = new RepositoryFacts(repoName, repoPath);
+        File repoDir = new File(repoPath);
+        
+        if (!repoDir.exists() || !repoDir.isDirectory()) {
+            return repoFacts;
+        }
+        
+        Path root = Paths.get(repoPath);
+        ExtractionCache.Session cacheSession = cache != null ? cache.open(repoName, repoPath) : null;
+        IgnoreRules.Walk walk = ignoreRules.walk(root);
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    // Pruned here, so nothing below an ignored directory is ever listed or stat'ed
+                    return walk.enterDirectory(dir) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+                }
+                
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    walk.exitDirectory(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && !walk.isIgnored(path, false)) {
+                        scanFile(new SourceFile(root, path), attrs, repoFacts, cacheSession);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+                
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Error scanning " + repoPath + ": " + e.getMessage());
+        }
+        
+        if (cacheSession != null) {
+            cacheSession.save();
+        }
+        
+        return repoFacts;
+    }
+    
+    /**
+     * Re-extracts the given files of an already scanned repository, along with files
+     * derived from them (e.g. module POMs of a changed parent). Files that no longer
+     * exist, or are now ignored, are dropped from the repository facts.
+     * 
+     * @param repoFacts Facts of the repository, updated in place
+     * @param relativePaths Changed files, relative to the repository root
+     */
+    public void rescanFiles(RepositoryFacts repoFacts, Collection<String> relativePaths) {
+        Path root = Paths.get(repoFacts.getPath());
+        
+        Set<String> changedPaths = new HashSet<>();
+        relativePaths.forEach(relativePath -> changedPaths.add(
+            root.resolve(relativePath).toAbsolutePath().normalize().toString()));
+        Set<String> rescan = new LinkedHashSet<>(relativePaths);
+        repoFacts.getFiles().forEach((relativePath, facts) -> {
+            if (!Collections.disjoint(facts.getBuildInputs(), changedPaths)) {
+                rescan.add(relativePath);
+            }
+        });
+        
+        for (String relativePath : rescan) {
+            repoFacts.removeFile(relativePath);
+            if (ignoreRules.isIgnored(root, relativePath)) {
+                continue;
+            }
+            
+            Path path = root.resolve(relativePath);
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    scanFile(new SourceFile(root, path), attrs, repoFacts, null);
+                }
+            } catch (IOException e) {
+                // Deleted or unreadable, already removed above
+            }
+        }
+    }
+    
+    /**
+     * Runs every interested analyzer over a single file, or reuses its cached facts
+     */
+    private void scanFile(SourceFile file, BasicFileAttributes attrs, RepositoryFacts repoFacts,
+                          ExtractionCache.Session cacheSession) {
+        List<Analyzer> accepting = new ArrayList<>();
+        for (Analyzer analyzer : analyzersFor(file.getExtension().toLowerCase())) {
+            if (analyzer.accepts(file)) {
+                accepting.add(analyzer);
+            }
+        }
+        if (accepting.isEmpty()) {
+            return;
+        }
+        
+        FileFacts facts = cacheSession != null ? cacheSession.get(file, attrs) : null;
+        if (facts == null) {
+            facts = new FileFacts();
+            for (Analyzer analyzer : accepting) {
+                analyzer.extract(file, facts);
+            }
+            if (cacheSession != null) {
+                cacheSession.put(file, attrs, facts);
+            }
+        }
+        
+        if (symbols != null) {
+            facts.canonicalize(symbols::canonical);
+            repoFacts.addFile(symbols.canonical(file.getRelativePath()), facts);
+        } else {
+            repoFacts.addFile(file.getRelativePath(), facts);
+        }
+    }
+    
+    /**
+     * Analyzers that declared a file type, or declared none and so read every file
+     */
+    private List<Analyzer> analyzersFor(String fileType) {
+        return analyzersByType.computeIfAbsent(fileType, type -> analyzers.stream()
+            .filter(analyzer -> analyzer.getFileTypes().isEmpty() || analyzer.getFileTypes().contains(type))
+            .collect(Collectors.toList()));
+    }
+}
+
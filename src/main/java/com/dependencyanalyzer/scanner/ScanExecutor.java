@@ -0,0 +1,112 @@
+package com.dependencyanalyzer.scanner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs scan tasks on a bounded pool and returns their results in submission order,
+ * so parallel runs produce exactly the same output as sequential ones
+ */
+public class ScanExecutor implements AutoCloseable {
+    
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    
+    public ScanExecutor(int parallelism, boolean virtualThreads) {
+        int threads = Math.max(1, parallelism);
+        if (virtualThreads) {
+            ExecutorService virtualExecutor = newVirtualThreadExecutor();
+            if (virtualExecutor != null) {
+                // Virtual threads are unbounded, so limit concurrent file I/O explicitly
+                this.executor = virtualExecutor;
+                this.permits = new Semaphore(threads);
+                return;
+            }
+            System.err.println("Virtual threads are not available on this JDK, using a fixed pool instead");
+        }
+        this.executor = threads > 1 ? Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "repo-scanner");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.permits = null;
+    }
+    
+    /**
+     * Runs all tasks and returns their results in the order the tasks were given
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        
+        if (executor == null) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(() -> {
+                if (permits == null) {
+                    return task.call();
+                }
+                permits.acquire();
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for scan results", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Scan task failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return results;
+    }
+    
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+    
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Scan task failed: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor() reflectively so the tool still builds for Java 11
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
+
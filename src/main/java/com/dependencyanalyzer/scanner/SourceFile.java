@@ -0,0 +1,197 @@
+package com.dependencyanalyzer.scanner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A file visited during a repository scan. The content is read at most once
+ * and shared by every analyzer that asks for it.
+ */
+public class SourceFile {
+    
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    // Smaller files are read in one go; mapping them costs more than it saves
+    private static final long MAP_THRESHOLD = 64 * 1024;
+    
+    private final Path repoRoot;
+    private final Path path;
+    private final String relativePath;
+    private byte[] bytes;
+    private String content;
+    private final Map<Class<?>, Object> derived = new HashMap<>(2);
+    
+    public SourceFile(Path repoRoot, Path path) {
+        this.repoRoot = repoRoot;
+        this.path = path;
+        this.relativePath = repoRoot.relativize(path).toString().replace("\\", "/");
+    }
+    
+    public Path getRepoRoot() {
+        return repoRoot;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Path relative to the repository root, always with forward slashes
+     */
+    public String getRelativePath() {
+        return relativePath;
+    }
+    
+    public String getFileName() {
+        return path.getFileName().toString();
+    }
+    
+    /**
+     * Extension without the dot, as written on disk (empty if none)
+     */
+    public String getExtension() {
+        String fileName = getFileName();
+        return fileName.contains(".")
+            ? fileName.substring(fileName.lastIndexOf(".") + 1)
+            : "";
+    }
+    
+    /**
+     * Relative path of the parent directory, or empty for files in the repository root
+     */
+    public String getParentPath() {
+        int index = relativePath.lastIndexOf('/');
+        return index >= 0 ? relativePath.substring(0, index) : "";
+    }
+    
+    /**
+     * Reads the raw file content on first use
+     */
+    public byte[] getBytes() throws IOException {
+        if (bytes == null) {
+            bytes = Files.readAllBytes(path);
+        }
+        return bytes;
+    }
+    
+    /**
+     * Whether the content has already been read by an analyzer
+     */
+    public boolean isLoaded() {
+        return bytes != null;
+    }
+    
+    /**
+     * Searches the raw bytes for any of the given markers without decoding the file.
+     * Large files are memory-mapped; small ones are read once and kept for later use.
+     */
+    public boolean containsAny(byte[]... markers) throws IOException {
+        if (bytes != null) {
+            return containsAny(ByteBuffer.wrap(bytes), markers);
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to search: " + path);
+            }
+            if (size < MAP_THRESHOLD) {
+                bytes = readFully(channel, (int) size);
+                return containsAny(ByteBuffer.wrap(bytes), markers);
+            }
+            return containsAny(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), markers);
+        }
+    }
+    
+    private static byte[] readFully(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Keep reading until the buffer is full or the file ends
+        }
+        // The file may have shrunk since its size was taken
+        return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+    }
+    
+    private static boolean containsAny(ByteBuffer buffer, byte[]... markers) {
+        int limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = buffer.get(i);
+            for (byte[] marker : markers) {
+                if (b == marker[0] && i + marker.length <= limit && matchesAt(buffer, i, marker)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static boolean matchesAt(ByteBuffer buffer, int offset, byte[] marker) {
+        for (int j = 1; j < marker.length; j++) {
+            if (buffer.get(offset + j) != marker[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Decodes the whole file as UTF-8 on first use
+     */
+    public String getContent() throws IOException {
+        if (content == null) {
+            content = new String(getBytes(), StandardCharsets.UTF_8);
+        }
+        return content;
+    }
+    
+    /**
+     * Opens a line reader over the file. If the content is not in memory yet it is
+     * streamed through a small buffered channel, so callers that stop early only
+     * pay for the part they read.
+     */
+    public BufferedReader openReader() throws IOException {
+        if (bytes != null) {
+            return new BufferedReader(new StringReader(getContent()));
+        }
+        
+        // Same replacement behaviour as new String(bytes, UTF_8) for malformed input
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new BufferedReader(
+            Channels.newReader(Files.newByteChannel(path), decoder, STREAM_BUFFER_SIZE),
+            STREAM_BUFFER_SIZE
+        );
+    }
+    
+    /**
+     * A value derived from the file, such as its syntax tree, computed on first use and
+     * shared by every analyzer that asks for it (null results are kept as well)
+     */
+    public <T> T derive(Class<T> type, Function<SourceFile, T> compute) {
+        if (!derived.containsKey(type)) {
+            derived.put(type, compute.apply(this));
+        }
+        return type.cast(derived.get(type));
+    }
+    
+    public List<String> getLines() throws IOException {
+        return getContent().lines().collect(Collectors.toList());
+    }
+}
+
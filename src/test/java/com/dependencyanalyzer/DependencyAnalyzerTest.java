@@ -0,0 +1,210 @@
+package com.dependencyanalyzer;
+
+import com.dependencyanalyzer.model.AnalysisSnapshot;
+import com.dependencyanalyzer.model.DependencyInfo;
+import com.dependencyanalyzer.scanner.ChangeSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DependencyAnalyzerTest {
+    
+    private static final String CONFIG = "src/main/resources/application.yml";
+    private static final String ORDERS_DB = "jdbc:postgresql://orders-db:5432/orders";
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void incrementalRunMatchesFullRunAfterAChange() throws IOException {
+        Map<String, String> repos = new LinkedHashMap<>();
+        repos.put("billing", repo("billing", ORDERS_DB, "orders.created"));
+        repos.put("orders", repo("orders", ORDERS_DB, "orders.created"));
+        repos.put("shipping", repo("shipping", "jdbc:postgresql://shipping-db:5432/shipping", "shipments.sent"));
+        
+        DependencyAnalyzer first = new DependencyAnalyzer(new AnalysisOptions());
+        List<DependencyInfo> before = first.analyzeAllPairs(repos);
+        AnalysisSnapshot snapshot = first.getLastSnapshot();
+        
+        // Shipping moves to the orders database and topic; billing and orders are untouched
+        write(Path.of(repos.get("shipping")).resolve(CONFIG), config("shipping", ORDERS_DB, "orders.created"));
+        ChangeSet changes = new ChangeSet();
+        changes.add("shipping", CONFIG);
+        
+        List<DependencyInfo> incremental = new DependencyAnalyzer(new AnalysisOptions()).analyzeIncremental(snapshot, changes);
+        List<DependencyInfo> full = full(repos);
+        
+        assertNotEquals(describe(before), describe(full));
+        assertEquals(describe(full), describe(incremental));
+    }
+    
+    @Test
+    public void incrementalRunMatchesFullRunAfterARenameAndADelete() throws IOException {
+        Map<String, String> repos = new LinkedHashMap<>();
+        repos.put("billing", repo("billing", ORDERS_DB, "orders.created"));
+        repos.put("orders", repo("orders", ORDERS_DB, "orders.created"));
+        repos.put("shipping", repo("shipping", "jdbc:postgresql://shipping-db:5432/shipping", "shipments.sent"));
+        
+        DependencyAnalyzer first = new DependencyAnalyzer(new AnalysisOptions());
+        List<DependencyInfo> before = first.analyzeAllPairs(repos);
+        AnalysisSnapshot snapshot = first.getLastSnapshot();
+        
+        // Orders moves its code out of the shared package root, billing drops its config
+        Path orders = Path.of(repos.get("orders"));
+        String oldPath = "src/main/java/com/example/orders/Application.java";
+        String newPath = "src/main/java/org/example/orders/Application.java";
+        write(orders.resolve(newPath), "package org.example.orders;\n\npublic class Application {\n}\n");
+        Files.delete(orders.resolve(oldPath));
+        Files.delete(Path.of(repos.get("billing")).resolve(CONFIG));
+        ChangeSet changes = new ChangeSet();
+        changes.add("orders", oldPath);
+        changes.add("orders", newPath);
+        changes.add("billing", CONFIG);
+        
+        List<DependencyInfo> incremental = new DependencyAnalyzer(new AnalysisOptions()).analyzeIncremental(snapshot, changes);
+        List<DependencyInfo> full = full(repos);
+        
+        assertNotEquals(describe(before), describe(full));
+        assertEquals(describe(full), describe(incremental));
+    }
+    
+    @Test
+    public void refusesSnapshotsTakenWithOtherSettings() throws IOException {
+        Map<String, String> repos = new LinkedHashMap<>();
+        repos.put("billing", repo("billing", ORDERS_DB, "orders.created"));
+        repos.put("orders", repo("orders", ORDERS_DB, "orders.created"));
+        
+        DependencyAnalyzer first = new DependencyAnalyzer(new AnalysisOptions());
+        first.analyzeAllPairs(repos);
+        AnalysisSnapshot snapshot = first.getLastSnapshot();
+        
+        AnalysisOptions prod = new AnalysisOptions();
+        prod.getProfiles().add("prod");
+        DependencyAnalyzer withProfile = new DependencyAnalyzer(prod);
+        
+        assertTrue(new DependencyAnalyzer(new AnalysisOptions()).canUpdate(snapshot));
+        assertFalse(withProfile.canUpdate(snapshot));
+        try {
+            withProfile.analyzeIncremental(snapshot, new ChangeSet());
+            fail("Expected the snapshot to be refused");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+    
+    @Test
+    public void rereadsParentPomsChangedBetweenRuns() throws IOException {
+        Map<String, String> repos = new LinkedHashMap<>();
+        repos.put("billing", repo("billing", ORDERS_DB, "orders.created"));
+        repos.put("orders", repo("orders", ORDERS_DB, "orders.created"));
+        Path parent = folder.getRoot().toPath().resolve("parent/pom.xml");
+        write(parent, parentPom("31.1-jre"));
+        write(Path.of(repos.get("billing")).resolve("pom.xml"), pom("billing",
+            "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version>" +
+            "<relativePath>../parent/pom.xml</relativePath></parent>", null));
+        write(Path.of(repos.get("orders")).resolve("pom.xml"), pom("orders", "", "32.1.2-jre"));
+        
+        DependencyAnalyzer analyzer = new DependencyAnalyzer(new AnalysisOptions());
+        List<DependencyInfo> before = analyzer.analyzeAllPairs(repos);
+        
+        write(parent, parentPom("32.1.2-jre"));
+        List<DependencyInfo> after = analyzer.analyzeAllPairs(repos);
+        
+        assertNotEquals(describe(before), describe(after));
+        assertEquals(describe(full(repos)), describe(after));
+    }
+    
+    @Test
+    public void keepsLibraryAndConfigEdgesOfPairsThePrePassDrops() throws IOException {
+        Map<String, String> repos = new LinkedHashMap<>();
+        repos.put("billing", repo("billing", ORDERS_DB, "orders.created"));
+        repos.put("orders", repo("orders", ORDERS_DB, "orders.created"));
+        write(Path.of(repos.get("billing")).resolve("pom.xml"), pom("billing", "", "32.1.2-jre"));
+        write(Path.of(repos.get("orders")).resolve("pom.xml"), pom("orders", "", "32.1.2-jre"));
+        
+        AnalysisOptions pruned = new AnalysisOptions();
+        pruned.setSimilarityThreshold(0.9);
+        List<DependencyInfo> dependencies = new DependencyAnalyzer(pruned).analyzeAllPairs(repos);
+        
+        // The packages differ, so the pair is dropped, but the library and the database are still shared
+        List<String> expected = describe(full(repos)).stream()
+            .filter(line -> !line.contains("Same package root"))
+            .collect(Collectors.toList());
+        assertEquals(expected, describe(dependencies));
+        assertTrue(dependencies.stream().anyMatch(dep -> dep.getType() == DependencyInfo.DependencyType.COMMON_LIBRARY));
+        assertTrue(dependencies.stream().anyMatch(dep -> dep.getType() == DependencyInfo.DependencyType.SHARED_CONFIG));
+    }
+    
+    private static List<DependencyInfo> full(Map<String, String> repos) {
+        return new DependencyAnalyzer(new AnalysisOptions()).analyzeAllPairs(repos);
+    }
+    
+    private String repo(String name, String database, String topic) throws IOException {
+        Path root = folder.newFolder(name).toPath();
+        write(root.resolve(CONFIG), config(name, database, topic));
+        write(root.resolve("src/main/java/com/example/" + name + "/Application.java"),
+            "package com.example." + name + ";\n\npublic class Application {\n}\n");
+        return root.toString();
+    }
+    
+    private static String parentPom(String guavaVersion) {
+        return "<project><modelVersion>4.0.0</modelVersion>" +
+            "<groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version><packaging>pom</packaging>" +
+            "<dependencyManagement><dependencies><dependency><groupId>com.google.guava</groupId><artifactId>guava</artifactId>" +
+            "<version>" + guavaVersion + "</version></dependency></dependencies></dependencyManagement></project>";
+    }
+    
+    private static String pom(String name, String parent, String guavaVersion) {
+        return "<project><modelVersion>4.0.0</modelVersion>" + parent +
+            "<groupId>com.example</groupId><artifactId>" + name + "</artifactId><version>1.0</version>" +
+            "<dependencies><dependency><groupId>com.google.guava</groupId><artifactId>guava</artifactId>" +
+            (guavaVersion != null ? "<version>" + guavaVersion + "</version>" : "") +
+            "</dependency></dependencies></project>";
+    }
+    
+    private static String config(String name, String database, String topic) {
+        return "spring:\n" +
+            "  application:\n" +
+            "    name: " + name + "\n" +
+            "  datasource:\n" +
+            "    url: " + database + "\n" +
+            "app:\n" +
+            "  kafka:\n" +
+            "    topics:\n" +
+            "      events: " + topic + "\n";
+    }
+    
+    /**
+     * Everything a dependency reports, in order
+     */
+    private static List<String> describe(List<DependencyInfo> dependencies) {
+        List<String> lines = new ArrayList<>();
+        for (DependencyInfo dep : dependencies) {
+            lines.add(dep.getType() + " " + dep.getSourceRepo() + " -> " + dep.getTargetRepo()
+                + " [" + dep.getStrength() + "] " + dep.getDescription() + " " + dep.getDetails());
+        }
+        return lines;
+    }
+    
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
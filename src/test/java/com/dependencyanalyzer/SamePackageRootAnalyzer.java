@@ -0,0 +1,58 @@
+package com.dependencyanalyzer;
+
+import com.dependencyanalyzer.analyzer.Analyzer;
+import com.dependencyanalyzer.index.FactIndex;
+import com.dependencyanalyzer.model.DependencyInfo;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analyzer registered for the tests through META-INF/services. It reports a type the
+ * built-in library analyzer reports as well, but runs after all built-in analyzers.
+ */
+public class SamePackageRootAnalyzer implements Analyzer {
+    
+    private static final String PACKAGE_ROOT = "package-root";
+    
+    @Override
+    public String getName() {
+        return "package root";
+    }
+    
+    @Override
+    public Set<String> getFileTypes() {
+        return Set.of("java");
+    }
+    
+    @Override
+    public void extract(SourceFile file, FileFacts facts) {
+        String path = file.getRelativePath();
+        int start = path.indexOf("com/");
+        if (start >= 0 && path.indexOf('/', start + 4) > 0) {
+            facts.addCustomFact(PACKAGE_ROOT, path.substring(start, path.indexOf('/', start + 4)));
+        }
+    }
+    
+    @Override
+    public List<DependencyInfo> analyze(RepositoryFacts source, Map<String, RepositoryFacts> otherRepos, FactIndex index) {
+        List<DependencyInfo> dependencies = new ArrayList<>();
+        Set<String> roots = source.getCustomFacts(PACKAGE_ROOT);
+        otherRepos.forEach((name, target) -> {
+            if (!Collections.disjoint(roots, target.getCustomFacts(PACKAGE_ROOT))) {
+                DependencyInfo dep = new DependencyInfo(source.getName(), name,
+                    DependencyInfo.DependencyType.COMMON_LIBRARY, "Same package root");
+                dep.addDetail("Files: " + target.getCustomFacts(PACKAGE_ROOT));
+                dependencies.add(dep);
+            }
+        });
+        return dependencies;
+    }
+}
+
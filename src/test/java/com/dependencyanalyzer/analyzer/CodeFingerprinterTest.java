@@ -0,0 +1,99 @@
+package com.dependencyanalyzer.analyzer;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CodeFingerprinterTest {
+    
+    @Test
+    public void needsAWholeWindowOfShingles() {
+        int minimum = CodeFingerprinter.SHINGLE_SIZE + CodeFingerprinter.WINDOW_SIZE - 1;
+        
+        assertEquals(0, fingerprints(tokens(0, minimum - 1)).length);
+        assertEquals(1, fingerprints(tokens(0, minimum)).length);
+    }
+    
+    @Test
+    public void ignoresLayoutAndComments() {
+        int[] compact = fingerprints("int total = price * quantity + shipping ; return total ;");
+        
+        assertArrayEquals(compact, fingerprints(
+            "int   total = price*quantity // computed\n" +
+            "    + shipping; /* block\n" +
+            " comment */ return total;"));
+        assertFalse(Arrays.equals(compact, fingerprints("int total = price * quantity - shipping ; return total ;")));
+    }
+    
+    @Test
+    public void keepsLiteralsWhole() {
+        assertArrayEquals(
+            fingerprints("log ( \"a b c d e f g h\" ) ; return x ; }"),
+            fingerprints("log(\"a b c d e f g h\"); return x; }"));
+        assertFalse(Arrays.equals(
+            fingerprints("log ( \"a b c d e f g h\" ) ; return x ; }"),
+            fingerprints("log ( \"a b c d e f g i\" ) ; return x ; }")));
+    }
+    
+    @Test
+    public void sharesAFingerprintForEverySharedRunOfWindowLength() {
+        int run = CodeFingerprinter.SHINGLE_SIZE + CodeFingerprinter.WINDOW_SIZE - 1;
+        String shared = tokens(1000, run);
+        
+        Set<Integer> first = set(fingerprints(tokens(0, 40) + " " + shared + " " + tokens(100, 40)));
+        Set<Integer> second = set(fingerprints(tokens(200, 25) + " " + shared + " " + tokens(300, 60)));
+        first.retainAll(second);
+        assertFalse(first.isEmpty());
+    }
+    
+    @Test
+    public void returnsDistinctSortedFingerprints() {
+        String repeated = tokens(0, 30);
+        int[] fingerprints = fingerprints(repeated + " " + repeated + " " + repeated);
+        
+        for (int i = 1; i < fingerprints.length; i++) {
+            assertTrue(fingerprints[i - 1] < fingerprints[i]);
+        }
+        // Only the shingles across the copies are new; every window within a copy is winnowed the same
+        assertTrue(set(fingerprints).containsAll(set(fingerprints(repeated))));
+        assertTrue(fingerprints.length < 3 * fingerprints(repeated).length);
+    }
+    
+    /**
+     * Fingerprints of source given line by line
+     */
+    static int[] fingerprints(String source) {
+        CodeFingerprinter fingerprinter = new CodeFingerprinter();
+        for (String line : source.split("\n", -1)) {
+            fingerprinter.addLine(line);
+        }
+        return fingerprinter.fingerprints();
+    }
+    
+    /**
+     * Count distinct identifier tokens, numbered from start
+     */
+    static String tokens(int start, int count) {
+        StringBuilder source = new StringBuilder();
+        for (int i = start; i < start + count; i++) {
+            source.append(" t").append(i);
+        }
+        return source.toString();
+    }
+    
+    private static Set<Integer> set(int[] values) {
+        Set<Integer> set = new HashSet<>();
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+}
+
@@ -0,0 +1,69 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigDependencyAnalyzerTest {
+    
+    private static final String CONFIG_MAP =
+        "apiVersion: v1\n" +
+        "kind: ConfigMap\n" +
+        "metadata:\n" +
+        "  name: order-service\n" +
+        "data:\n" +
+        "  SPRING_PROFILES_ACTIVE: prod\n";
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private final ConfigDependencyAnalyzer analyzer = new ConfigDependencyAnalyzer();
+    
+    @Test
+    public void acceptsSpringConfigLocations() throws IOException {
+        assertTrue(analyzer.accepts(file("src/main/resources/application.yml", "")));
+        assertTrue(analyzer.accepts(file("orders/src/main/resources/config/application.properties", "")));
+        assertTrue(analyzer.accepts(file("config/application.yaml", "")));
+        assertFalse(analyzer.accepts(file("src/test/resources/application.yml", "")));
+    }
+    
+    @Test
+    public void acceptsManifestsOnlyInDeploymentDirectories() throws IOException {
+        assertTrue(analyzer.accepts(file("k8s/configmap.yaml", CONFIG_MAP)));
+        assertTrue(analyzer.accepts(file("orders/helm/templates/configmap.yml", CONFIG_MAP)));
+        assertTrue(analyzer.accepts(file("Deploy/prod/configmap.yaml", CONFIG_MAP)));
+        assertFalse(analyzer.accepts(file(".github/workflows/build.yml", CONFIG_MAP)));
+        assertFalse(analyzer.accepts(file("docs/openapi.yaml", CONFIG_MAP)));
+    }
+    
+    @Test
+    public void recordsOnlyManifestsHoldingConfigMaps() throws IOException {
+        FileFacts configMap = new FileFacts();
+        analyzer.extract(file("k8s/configmap.yaml", CONFIG_MAP), configMap);
+        assertTrue(configMap.isConfigFile());
+        assertTrue(configMap.getConfigKeys().contains("SPRING_PROFILES_ACTIVE"));
+        
+        FileFacts deployment = new FileFacts();
+        analyzer.extract(file("k8s/deployment.yaml", "apiVersion: apps/v1\nkind: Deployment\n"), deployment);
+        assertFalse(deployment.isConfigFile());
+    }
+    
+    private SourceFile file(String relativePath, String content) throws IOException {
+        Path root = folder.getRoot().toPath();
+        Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return new SourceFile(root, path);
+    }
+}
+
@@ -0,0 +1,208 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.scanner.SourceFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigParserTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void flattensNestedYamlKeys() throws IOException {
+        ConfigParser.ConfigProperties properties = parse("application.yml",
+            "spring:\n" +
+            "  application:\n" +
+            "    name: order-service # trailing comment\n" +
+            "  datasource:\n" +
+            "    url: jdbc:mysql://db:3306/orders\n" +
+            "server:\n" +
+            "  port: 8080\n");
+        
+        Map<String, String> values = properties.defaultValues();
+        assertEquals("order-service", values.get("spring.application.name"));
+        assertEquals("jdbc:mysql://db:3306/orders", values.get("spring.datasource.url"));
+        assertEquals("8080", values.get("server.port"));
+    }
+    
+    @Test
+    public void indexesYamlSequences() throws IOException {
+        Map<String, String> values = parse("application.yml",
+            "app:\n" +
+            "  hosts:\n" +
+            "    - alpha\n" +
+            "    - beta\n" +
+            "  routes:\n" +
+            "    - id: users\n" +
+            "      uri: lb://user-service\n" +
+            "    - id: orders\n" +
+            "      uri: lb://order-service\n").defaultValues();
+        
+        assertEquals("alpha", values.get("app.hosts[0]"));
+        assertEquals("beta", values.get("app.hosts[1]"));
+        assertEquals("users", values.get("app.routes[0].id"));
+        assertEquals("lb://order-service", values.get("app.routes[1].uri"));
+    }
+    
+    @Test
+    public void readsBlockScalars() throws IOException {
+        Map<String, String> values = parse("application.yml",
+            "app:\n" +
+            "  banner: |\n" +
+            "    first line\n" +
+            "    second line\n" +
+            "  folded: >\n" +
+            "    one\n" +
+            "    two\n" +
+            "  after: done\n").defaultValues();
+        
+        assertEquals("first line\nsecond line", values.get("app.banner").trim());
+        assertTrue(values.get("app.folded").startsWith("one"));
+        assertEquals("done", values.get("app.after"));
+    }
+    
+    @Test
+    public void unquotesKeysAndValues() throws IOException {
+        Map<String, String> values = parse("application.yml",
+            "logging:\n" +
+            "  level:\n" +
+            "    \"com.example.web\": DEBUG\n" +
+            "    'org.hibernate': WARN\n" +
+            "app:\n" +
+            "  greeting: \"hello: world # not a comment\"\n" +
+            "  single: 'it''s'\n").defaultValues();
+        
+        assertEquals("DEBUG", values.get("logging.level.com.example.web"));
+        assertEquals("WARN", values.get("logging.level.org.hibernate"));
+        assertEquals("hello: world # not a comment", values.get("app.greeting"));
+        assertEquals("it's", values.get("app.single"));
+    }
+    
+    @Test
+    public void attributesYamlDocumentsToTheirProfile() throws IOException {
+        ConfigParser.ConfigProperties properties = parse("application.yml",
+            "server:\n" +
+            "  port: 8080\n" +
+            "---\n" +
+            "spring:\n" +
+            "  config:\n" +
+            "    activate:\n" +
+            "      on-profile: prod\n" +
+            "server:\n" +
+            "  port: 80\n" +
+            "---\n" +
+            "spring:\n" +
+            "  profiles: dev\n" +
+            "server:\n" +
+            "  port: 8081\n");
+        
+        Map<String, String> profiles = profilesByKeyAndValue(properties);
+        assertNull(profiles.get("server.port=8080"));
+        assertEquals("prod", profiles.get("server.port=80"));
+        assertEquals("dev", profiles.get("server.port=8081"));
+        assertEquals("8080", properties.defaultValues().get("server.port"));
+    }
+    
+    @Test
+    public void attributesProfileFilesToTheirProfile() throws IOException {
+        ConfigParser.ConfigProperties properties = parse("application-staging.properties", "server.port=9090\n");
+        
+        assertEquals("staging", properties.getProfile(0));
+        assertTrue(properties.defaultValues().isEmpty());
+        assertEquals("staging", ConfigParser.profileOf("bootstrap-staging.yml"));
+        assertNull(ConfigParser.profileOf("application.yml"));
+    }
+    
+    @Test
+    public void readsPropertiesWithContinuationsEscapesAndDocuments() throws IOException {
+        ConfigParser.ConfigProperties properties = parse("application.properties",
+            "# comment\n" +
+            "! another comment\n" +
+            "spring.application.name = user-service\n" +
+            "app.list=one,\\\n" +
+            "    two\n" +
+            "app.path:C\\:\\\\data\n" +
+            "app.escaped\\ key=value\n" +
+            "#---\n" +
+            "spring.config.activate.on-profile=prod\n" +
+            "server.port=80\n");
+        
+        Map<String, String> values = properties.defaultValues();
+        assertEquals("user-service", values.get("spring.application.name"));
+        assertEquals("one,two", values.get("app.list"));
+        assertEquals("C:\\data", values.get("app.path"));
+        assertEquals("value", values.get("app.escaped key"));
+        assertFalse(values.containsKey("server.port"));
+        assertEquals("prod", profilesByKeyAndValue(properties).get("server.port=80"));
+    }
+    
+    @Test
+    public void extractsConfigMapData() throws IOException {
+        ConfigParser.ConfigProperties properties = parse("configmap.yaml",
+            "apiVersion: apps/v1\n" +
+            "kind: Deployment\n" +
+            "metadata:\n" +
+            "  name: order-service\n" +
+            "---\n" +
+            "apiVersion: v1\n" +
+            "kind: ConfigMap\n" +
+            "metadata:\n" +
+            "  name: order-config\n" +
+            "data:\n" +
+            "  LOG_LEVEL: debug\n" +
+            "  application-prod.yml: |\n" +
+            "    spring:\n" +
+            "      datasource:\n" +
+            "        url: jdbc:postgresql://pg:5432/orders\n");
+        
+        Map<String, String> profiles = profilesByKeyAndValue(properties);
+        Map<String, String> values = properties.defaultValues();
+        assertEquals("debug", values.get("LOG_LEVEL"));
+        assertEquals("prod", profiles.get("spring.datasource.url=jdbc:postgresql://pg:5432/orders"));
+        assertFalse(values.containsKey("metadata.name"));
+        assertFalse(values.containsKey("kind"));
+    }
+    
+    @Test
+    public void readsXmlElementsAndAttributes() throws IOException {
+        Map<String, String> values = parse("settings.xml",
+            "<config>\n" +
+            "  <database url=\"jdbc:h2:mem:test\">\n" +
+            "    <user>sa</user>\n" +
+            "  </database>\n" +
+            "</config>\n").defaultValues();
+        
+        assertEquals("sa", values.get("config.database.user"));
+        assertEquals("jdbc:h2:mem:test", values.get("config.database[@url]"));
+    }
+    
+    private ConfigParser.ConfigProperties parse(String fileName, String content) throws IOException {
+        Path root = folder.getRoot().toPath();
+        Path file = root.resolve(fileName);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return ConfigParser.parse(new SourceFile(root, file));
+    }
+    
+    private static Map<String, String> profilesByKeyAndValue(ConfigParser.ConfigProperties properties) {
+        Map<String, String> profiles = new LinkedHashMap<>();
+        for (int i = 0; i < properties.size(); i++) {
+            profiles.put(properties.getKey(i) + "=" + properties.getValue(i), properties.getProfile(i));
+        }
+        return profiles;
+    }
+}
+
@@ -0,0 +1,113 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.index.FactIndex;
+import com.dependencyanalyzer.model.DependencyInfo;
+import com.dependencyanalyzer.model.FeignClientDefinition;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class FeignClientAnalyzerTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private final FeignClientAnalyzer analyzer = new FeignClientAnalyzer();
+    
+    @Test
+    public void resolvesCallsInBothDirections() {
+        RepositoryFacts billing = repo("billing", "orders");
+        RepositoryFacts orders = repo("orders", null);
+        RepositoryFacts shipping = repo("shipping", "billing");
+        FactIndex index = new FactIndex(List.of(billing, orders, shipping));
+        
+        assertEquals(List.of("billing -> orders", "shipping -> billing"),
+            describe(analyzer.analyze(billing, targets(orders, shipping), index)));
+        assertEquals(List.of("billing -> orders"), describe(analyzer.analyze(orders, targets(billing), index)));
+    }
+    
+    @Test
+    public void resolvesCallsAgainstEachIndex() {
+        RepositoryFacts billing = repo("billing", "orders");
+        RepositoryFacts orders = repo("orders", null);
+        analyzer.analyze(billing, targets(orders), new FactIndex(List.of(billing, orders)));
+        
+        // The next run renamed the orders service, so the client no longer resolves to it
+        RepositoryFacts renamed = new RepositoryFacts("orders", "orders");
+        renamed.addFile("src/main/resources/application.yml", config("order-service"));
+        
+        FactIndex next = new FactIndex(List.of(billing, renamed));
+        assertEquals(List.of(), describe(analyzer.analyze(billing, targets(renamed), next)));
+    }
+    
+    @Test
+    public void matchesTheAnnotationNameCaseSensitively() throws IOException {
+        FileFacts facts = new FileFacts();
+        analyzer.extract(file("OrdersClient.java",
+            "@FeignClient(name = \"orders\")\ninterface OrdersClient {}\n" +
+            "@feignclient(name = \"billing\")\ninterface BillingClient {}\n"), facts);
+        
+        assertEquals(1, facts.getFeignClients().size());
+        assertEquals("orders", facts.getFeignClients().get(0).getName());
+        
+        FileFacts lowerCase = new FileFacts();
+        analyzer.extract(file("BillingClient.java", "@feignclient(name = \"billing\")\ninterface BillingClient {}\n"), lowerCase);
+        assertEquals(0, lowerCase.getFeignClients().size());
+    }
+    
+    private SourceFile file(String name, String content) throws IOException {
+        Path root = folder.getRoot().toPath();
+        Path path = root.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return new SourceFile(root, path);
+    }
+    
+    private static RepositoryFacts repo(String name, String calls) {
+        RepositoryFacts repo = new RepositoryFacts(name, name);
+        repo.addFile("src/main/resources/application.yml", config(name));
+        if (calls != null) {
+            FileFacts client = new FileFacts();
+            client.setSourceFile(true);
+            Map<String, String> attributes = new LinkedHashMap<>();
+            attributes.put("name", calls);
+            client.addFeignClient(new FeignClientDefinition(attributes));
+            repo.addFile("src/main/java/com/example/" + name + "/Client.java", client);
+        }
+        return repo;
+    }
+    
+    private static FileFacts config(String applicationName) {
+        FileFacts config = new FileFacts();
+        config.setConfigFile(true);
+        config.putConfigValue("spring.application.name", applicationName);
+        return config;
+    }
+    
+    private static Map<String, RepositoryFacts> targets(RepositoryFacts... repos) {
+        Map<String, RepositoryFacts> targets = new LinkedHashMap<>();
+        for (RepositoryFacts repo : repos) {
+            targets.put(repo.getName(), repo);
+        }
+        return targets;
+    }
+    
+    private static List<String> describe(List<DependencyInfo> dependencies) {
+        List<String> lines = new ArrayList<>();
+        dependencies.forEach(dep -> lines.add(dep.getSourceRepo() + " -> " + dep.getTargetRepo()));
+        return lines;
+    }
+}
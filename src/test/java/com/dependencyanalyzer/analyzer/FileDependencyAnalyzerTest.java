@@ -0,0 +1,58 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.scanner.SourceFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FileDependencyAnalyzerTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private final FileDependencyAnalyzer analyzer = new FileDependencyAnalyzer();
+    
+    @Test
+    public void keepsJavaFilesInMemoryForTheOtherAnalyzers() throws IOException {
+        SourceFile file = file("src/main/java/com/example/orders/OrderClient.java",
+            "package com.example.orders;\n\nimport com.example.api.Order;\n\npublic interface OrderClient {\n}\n");
+        FileFacts facts = new FileFacts();
+        
+        analyzer.extract(file, facts);
+        
+        assertEquals("com.example.orders", facts.getPackageName());
+        assertEquals(List.of("com.example.api.Order"), facts.getImports());
+        assertTrue(file.isLoaded());
+    }
+    
+    @Test
+    public void streamsOtherSourceFiles() throws IOException {
+        SourceFile file = file("src/main/kotlin/com/example/orders/OrderClient.kt",
+            "package com.example.orders\n\nimport com.example.api.Order\n\ninterface OrderClient\n");
+        FileFacts facts = new FileFacts();
+        
+        analyzer.extract(file, facts);
+        
+        assertTrue(facts.isSourceFile());
+        assertFalse(file.isLoaded());
+    }
+    
+    private SourceFile file(String relativePath, String content) throws IOException {
+        Path root = folder.getRoot().toPath();
+        Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return new SourceFile(root, path);
+    }
+}
@@ -0,0 +1,168 @@
+package com.dependencyanalyzer.analyzer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GradleBuildParserTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void readsGroovyDeclarations() throws IOException {
+        Path root = folder.getRoot().toPath();
+        write(root.resolve("gradle.properties"), "jacksonVersion=2.15.2\n");
+        
+        Map<String, String> dependencies = parse(root,
+            "group = 'com.example'\n" +
+            "ext {\n" +
+            "    guavaVersion = '32.1.2-jre'\n" +
+            "}\n" +
+            "buildscript {\n" +
+            "    dependencies {\n" +
+            "        classpath 'org.springframework.boot:spring-boot-gradle-plugin:2.7.14'\n" +
+            "    }\n" +
+            "}\n" +
+            "dependencies {\n" +
+            "    implementation 'org.springframework.boot:spring-boot-starter-web:2.7.14'\n" +
+            "    implementation \"com.google.guava:guava:$guavaVersion\"\n" +
+            "    implementation \"com.fasterxml.jackson.core:jackson-databind:${jacksonVersion}\"\n" +
+            "    implementation group: 'org.apache.commons', name: 'commons-lang3', version: '3.12.0'\n" +
+            "    runtimeOnly 'org.postgresql:postgresql' // managed by a BOM\n" +
+            "    implementation project(':common')\n" +
+            "    /* testImplementation 'junit:junit:4.13.2' */\n" +
+            "}\n").getDependencies();
+        
+        assertEquals("2.7.14", dependencies.get("org.springframework.boot:spring-boot-starter-web"));
+        assertEquals("32.1.2-jre", dependencies.get("com.google.guava:guava"));
+        assertEquals("2.15.2", dependencies.get("com.fasterxml.jackson.core:jackson-databind"));
+        assertEquals("3.12.0", dependencies.get("org.apache.commons:commons-lang3"));
+        assertEquals("unknown", dependencies.get("org.postgresql:postgresql"));
+        assertFalse(dependencies.containsKey("org.springframework.boot:spring-boot-gradle-plugin"));
+        assertFalse(dependencies.containsKey("junit:junit"));
+        assertEquals(5, dependencies.size());
+    }
+    
+    @Test
+    public void readsKotlinDeclarations() throws IOException {
+        Path root = folder.getRoot().toPath();
+        
+        GradleBuildParser.GradleBuild build = parse(root,
+            "group = \"com.example\"\n" +
+            "val kotestVersion: String = \"5.6.2\"\n" +
+            "extra[\"springCloudVersion\"] = \"2022.0.4\"\n" +
+            "dependencies {\n" +
+            "    implementation(kotlin(\"stdlib\"))\n" +
+            "    implementation(kotlin(\"reflect\", \"1.9.0\"))\n" +
+            "    implementation(\"org.springframework.cloud:spring-cloud-starter-openfeign:${property(\"x\")}\")\n" +
+            "    testImplementation(\"io.kotest:kotest-runner-junit5:$kotestVersion\")\n" +
+            "    implementation(\"io.micrometer:micrometer-core\")\n" +
+            "    constraints {\n" +
+            "        implementation(\"io.micrometer:micrometer-core:1.11.3\")\n" +
+            "    }\n" +
+            "}\n");
+        Map<String, String> dependencies = build.getDependencies();
+        
+        assertEquals("com.example", build.getGroup());
+        assertEquals("unknown", dependencies.get("org.jetbrains.kotlin:kotlin-stdlib"));
+        assertEquals("1.9.0", dependencies.get("org.jetbrains.kotlin:kotlin-reflect"));
+        assertEquals("unknown", dependencies.get("org.springframework.cloud:spring-cloud-starter-openfeign"));
+        assertEquals("5.6.2", dependencies.get("io.kotest:kotest-runner-junit5"));
+        assertEquals("1.11.3", dependencies.get("io.micrometer:micrometer-core"));
+    }
+    
+    @Test
+    public void resolvesCatalogAliasesAndBundles() throws IOException {
+        Path root = folder.getRoot().toPath();
+        Files.createDirectories(root.resolve("gradle"));
+        write(root.resolve("gradle/libs.versions.toml"),
+            "[versions]\n" +
+            "jackson = \"2.15.2\"\n" +
+            "slf4j = { strictly = \"2.0.7\" }\n" +
+            "\n" +
+            "[libraries]\n" +
+            "jackson-databind = { module = \"com.fasterxml.jackson.core:jackson-databind\", version.ref = \"jackson\" }\n" +
+            "jackson_datatype_jsr310 = { group = \"com.fasterxml.jackson.datatype\", name = \"jackson-datatype-jsr310\", version.ref = \"jackson\" }\n" +
+            "slf4j-api = { module = \"org.slf4j:slf4j-api\", version.ref = \"slf4j\" }\n" +
+            "guava = \"com.google.guava:guava:32.1.2-jre\" # plain notation\n" +
+            "\n" +
+            "[bundles]\n" +
+            "jackson = [\n" +
+            "    \"jackson-databind\",\n" +
+            "    \"jackson-datatype-jsr310\",\n" +
+            "]\n");
+        
+        GradleBuildParser.GradleBuild build = parse(root,
+            "dependencies {\n" +
+            "    implementation(libs.bundles.jackson)\n" +
+            "    implementation(libs.slf4j.api)\n" +
+            "    implementation libs.guava\n" +
+            "}\n");
+        Map<String, String> dependencies = build.getDependencies();
+        
+        assertEquals("2.15.2", dependencies.get("com.fasterxml.jackson.core:jackson-databind"));
+        assertEquals("2.15.2", dependencies.get("com.fasterxml.jackson.datatype:jackson-datatype-jsr310"));
+        assertEquals("2.0.7", dependencies.get("org.slf4j:slf4j-api"));
+        assertEquals("32.1.2-jre", dependencies.get("com.google.guava:guava"));
+        assertTrue(build.getInputs().contains(root.resolve("gradle/libs.versions.toml").toAbsolutePath().normalize().toString()));
+    }
+    
+    @Test
+    public void rereadsSharedFilesOnlyWhenTheyChange() throws IOException {
+        Path root = folder.getRoot().toPath();
+        Path properties = root.resolve("gradle.properties");
+        write(properties, "libVersion=1.0\n");
+        String script = "dependencies {\n    implementation \"com.example:lib:$libVersion\"\n}\n";
+        
+        assertEquals("1.0", parse(root, script).getDependencies().get("com.example:lib"));
+        assertEquals("1.0", parse(root.resolve("module"), root, script).getDependencies().get("com.example:lib"));
+        
+        write(properties, "libVersion=1.0.1\n");
+        assertEquals("1.0.1", parse(root, script).getDependencies().get("com.example:lib"));
+    }
+    
+    @Test
+    public void recordsSharedFilesAsInputsEvenWhenAbsent() {
+        Path root = folder.getRoot().toPath();
+        GradleBuildParser.GradleBuild build = parse(root,
+            "dependencies {\n    implementation libs.guava\n    implementation \"com.example:lib:$libVersion\"\n}\n");
+        
+        assertTrue(build.getInputs().contains(root.resolve("gradle.properties").toAbsolutePath().normalize().toString()));
+        assertTrue(build.getInputs().contains(root.resolve("gradle/libs.versions.toml").toAbsolutePath().normalize().toString()));
+    }
+    
+    @Test
+    public void readsIncludedProjects() {
+        GradleBuildParser.GradleBuild settings = GradleBuildParser.parseSettings(
+            "rootProject.name = 'shop'\n" +
+            "include 'api', ':services:orders'\n" +
+            "include(\"web\")\n");
+        
+        assertEquals(Arrays.asList(".", "api", "services/orders", "web"), settings.getModules());
+    }
+    
+    private static GradleBuildParser.GradleBuild parse(Path root, String script) {
+        return parse(root, root, script);
+    }
+    
+    private static GradleBuildParser.GradleBuild parse(Path dir, Path root, String script) {
+        return GradleBuildParser.parseBuildScript(dir.resolve("build.gradle"), root, script);
+    }
+    
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
@@ -0,0 +1,55 @@
+package com.dependencyanalyzer.analyzer;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JavaSourceParserTest {
+    
+    @Test
+    public void keepsWildcardImportsWithoutGuessingPackages() {
+        CompilationUnit unit = StaticJavaParser.parse(
+            "package com.example.service;\n" +
+            "import com.example.dto.*;\n" +
+            "public class OrderService {\n" +
+            "    private UserService users;\n" +
+            "    private UserDto user;\n" +
+            "}\n");
+        
+        Set<String> types = JavaSourceParser.referencedTypes(unit);
+        
+        assertEquals(Set.of("com.example.dto.*"), types);
+        assertFalse(types.contains("com.example.dto.UserService"));
+    }
+    
+    @Test
+    public void readsImportsStaticImportsAndQualifiedNames() {
+        CompilationUnit unit = StaticJavaParser.parse(
+            "package com.example;\n" +
+            "import java.util.List;\n" +
+            "import com.example.dto.UserDto;\n" +
+            "import static org.junit.Assert.assertEquals;\n" +
+            "import static com.example.Constants.*;\n" +
+            "public class Client {\n" +
+            "    List<UserDto> users;\n" +
+            "    org.springframework.http.HttpStatus status;\n" +
+            "    @org.springframework.stereotype.Service class Inner {}\n" +
+            "}\n");
+        
+        Set<String> types = JavaSourceParser.referencedTypes(unit);
+        
+        assertTrue(types.contains("com.example.dto.UserDto"));
+        assertTrue(types.contains("org.junit.Assert"));
+        assertTrue(types.contains("com.example.Constants"));
+        assertTrue(types.contains("org.springframework.http.HttpStatus"));
+        assertTrue(types.contains("org.springframework.stereotype.Service"));
+        assertFalse(types.contains("java.util.List"));
+    }
+}
+
@@ -0,0 +1,214 @@
+package com.dependencyanalyzer.analyzer;
+
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MavenModelResolverTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private Path project;
+    private Path localRepository;
+    private MavenModelResolver resolver;
+    
+    @Before
+    public void setUp() throws IOException {
+        project = folder.newFolder("project").toPath();
+        localRepository = folder.newFolder("repository").toPath();
+        resolver = new MavenModelResolver(localRepository);
+    }
+    
+    @Test
+    public void inheritsFromRelativePathParent() throws Exception {
+        write(project.resolve("pom.xml"), pom(
+            "<groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version>" +
+            "<packaging>pom</packaging>" +
+            "<properties><guava.version>32.1.2-jre</guava.version></properties>" +
+            "<dependencyManagement><dependencies>" +
+            dependency("com.google.guava", "guava", "${guava.version}") +
+            "</dependencies></dependencyManagement>" +
+            "<dependencies>" + dependency("org.slf4j", "slf4j-api", "2.0.9") + "</dependencies>"));
+        
+        MavenModelResolver.EffectivePom child = resolveModule("service",
+            "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version></parent>" +
+            "<artifactId>service</artifactId>" +
+            "<dependencies>" + dependency("com.google.guava", "guava", null) + "</dependencies>");
+        
+        assertEquals("com.example:service", child.getKey());
+        assertEquals("32.1.2-jre", child.getDependencies().get("com.google.guava:guava"));
+        assertEquals("2.0.9", child.getDependencies().get("org.slf4j:slf4j-api"));
+        assertTrue(child.getInputs().contains(project.resolve("pom.xml").toAbsolutePath().normalize().toString()));
+    }
+    
+    @Test
+    public void ignoresRelativePathPomWithOtherCoordinates() throws Exception {
+        write(project.resolve("pom.xml"), pom(
+            "<groupId>com.example</groupId><artifactId>aggregator</artifactId><version>1.0</version>" +
+            "<dependencyManagement><dependencies>" +
+            dependency("com.google.guava", "guava", "31.0-jre") +
+            "</dependencies></dependencyManagement>"));
+        writeRepositoryPom("com.example", "corporate-parent", "3", pom(
+            "<groupId>com.example</groupId><artifactId>corporate-parent</artifactId><version>3</version>" +
+            "<dependencyManagement><dependencies>" +
+            dependency("com.google.guava", "guava", "32.1.2-jre") +
+            "</dependencies></dependencyManagement>"));
+        
+        MavenModelResolver.EffectivePom child = resolveModule("service",
+            "<parent><groupId>com.example</groupId><artifactId>corporate-parent</artifactId><version>3</version></parent>" +
+            "<artifactId>service</artifactId>" +
+            "<dependencies>" + dependency("com.google.guava", "guava", null) + "</dependencies>");
+        
+        assertEquals("32.1.2-jre", child.getDependencies().get("com.google.guava:guava"));
+    }
+    
+    @Test
+    public void reusesParentSharedByModules() throws Exception {
+        Path parentPom = project.resolve("pom.xml");
+        write(parentPom, pom(
+            "<groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version>" +
+            "<properties><kafka.version>3.5.1</kafka.version></properties>"));
+        String module = "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version></parent>" +
+            "<artifactId>%s</artifactId>" +
+            "<dependencies>" + dependency("org.apache.kafka", "kafka-clients", "${kafka.version}") + "</dependencies>";
+        
+        assertEquals("3.5.1", resolveModule("first", String.format(module, "first"))
+            .getDependencies().get("org.apache.kafka:kafka-clients"));
+        
+        // The parent is read once; a second module sees the cached model, not the changed file
+        write(parentPom, "not a POM");
+        assertEquals("3.5.1", resolveModule("second", String.format(module, "second"))
+            .getDependencies().get("org.apache.kafka:kafka-clients"));
+    }
+    
+    @Test
+    public void importsBomsFromLocalRepository() throws Exception {
+        writeRepositoryPom("com.example", "platform-bom", "2.0", pom(
+            "<groupId>com.example</groupId><artifactId>platform-bom</artifactId><version>2.0</version>" +
+            "<properties><netty.version>4.1.100.Final</netty.version></properties>" +
+            "<dependencyManagement><dependencies>" +
+            dependency("io.netty", "netty-handler", "${netty.version}") +
+            dependency("org.slf4j", "slf4j-api", "2.0.9") +
+            "</dependencies></dependencyManagement>"));
+        
+        MavenModelResolver.EffectivePom service = resolveModule("service",
+            "<groupId>com.example</groupId><artifactId>service</artifactId><version>1.0</version>" +
+            "<dependencyManagement><dependencies>" +
+            "<dependency><groupId>com.example</groupId><artifactId>platform-bom</artifactId><version>2.0</version>" +
+            "<type>pom</type><scope>import</scope></dependency>" +
+            dependency("org.slf4j", "slf4j-api", "1.7.36") +
+            "</dependencies></dependencyManagement>" +
+            "<dependencies>" +
+            dependency("io.netty", "netty-handler", null) +
+            dependency("org.slf4j", "slf4j-api", null) +
+            dependency("org.unknown", "unmanaged", null) +
+            "</dependencies>");
+        
+        Map<String, String> dependencies = service.getDependencies();
+        assertEquals("4.1.100.Final", dependencies.get("io.netty:netty-handler"));
+        // Entries declared in the POM win over imported ones
+        assertEquals("1.7.36", dependencies.get("org.slf4j:slf4j-api"));
+        assertEquals("unknown", dependencies.get("org.unknown:unmanaged"));
+        assertTrue(service.getInputs().contains(
+            repositoryPom("com.example", "platform-bom", "2.0").toAbsolutePath().normalize().toString()));
+    }
+    
+    @Test
+    public void recordsLocationsOfMissingPoms() throws Exception {
+        MavenModelResolver.EffectivePom service = resolveModule("service",
+            "<parent><groupId>com.example</groupId><artifactId>parent</artifactId><version>1.0</version></parent>" +
+            "<artifactId>service</artifactId>" +
+            "<dependencyManagement><dependencies>" +
+            "<dependency><groupId>com.example</groupId><artifactId>platform-bom</artifactId><version>2.0</version>" +
+            "<type>pom</type><scope>import</scope></dependency>" +
+            "</dependencies></dependencyManagement>");
+        
+        // Creating any of these must invalidate the cached result
+        assertTrue(service.getInputs().contains(project.resolve("pom.xml").toAbsolutePath().normalize().toString()));
+        assertTrue(service.getInputs().contains(repositoryPom("com.example", "parent", "1.0").toString()));
+        assertTrue(service.getInputs().contains(repositoryPom("com.example", "platform-bom", "2.0").toString()));
+    }
+    
+    @Test
+    public void interpolatesProperties() throws Exception {
+        MavenModelResolver.EffectivePom service = resolveModule("service",
+            "<groupId>${company}.services</groupId><artifactId>service</artifactId><version>4.2</version>" +
+            "<properties>" +
+            "<company>com.example</company>" +
+            "<spring.version>5.3.29</spring.version>" +
+            "<spring-web.version>${spring.version}</spring-web.version>" +
+            "</properties>" +
+            "<dependencies>" +
+            dependency("org.springframework", "spring-web", "${spring-web.version}") +
+            dependency("${project.groupId}", "service-api", "${project.version}") +
+            dependency("org.example", "missing", "${undefined.version}") +
+            "</dependencies>");
+        
+        Map<String, String> dependencies = service.getDependencies();
+        assertEquals("com.example.services:service", service.getKey());
+        assertEquals("5.3.29", dependencies.get("org.springframework:spring-web"));
+        assertEquals("4.2", dependencies.get("com.example.services:service-api"));
+        assertEquals("${undefined.version}", dependencies.get("org.example:missing"));
+    }
+    
+    @Test
+    public void recordsExclusionsOfRuntimeDependencies() throws Exception {
+        MavenModelResolver.EffectivePom service = resolveModule("service",
+            "<groupId>com.example</groupId><artifactId>service</artifactId><version>1.0</version>" +
+            "<dependencies>" +
+            "<dependency><groupId>org.apache.kafka</groupId><artifactId>kafka-clients</artifactId><version>3.5.1</version>" +
+            "<exclusions><exclusion><groupId>org.xerial.snappy</groupId><artifactId>snappy-java</artifactId></exclusion></exclusions>" +
+            "</dependency>" +
+            "<dependency><groupId>junit</groupId><artifactId>junit</artifactId><version>4.13.2</version><scope>test</scope></dependency>" +
+            "</dependencies>");
+        
+        Map<String, ?> exclusions = service.getTransitiveExclusions();
+        assertEquals(Collections.singleton("org.xerial.snappy:snappy-java"), exclusions.get("org.apache.kafka:kafka-clients"));
+        assertFalse(exclusions.containsKey("junit:junit"));
+    }
+    
+    private MavenModelResolver.EffectivePom resolveModule(String name, String body)
+            throws IOException, XmlPullParserException {
+        Path pomFile = project.resolve(name).resolve("pom.xml");
+        String content = pom(body);
+        write(pomFile, content);
+        return resolver.resolve(pomFile, content);
+    }
+    
+    private void writeRepositoryPom(String groupId, String artifactId, String version, String content) throws IOException {
+        write(repositoryPom(groupId, artifactId, version), content);
+    }
+    
+    private Path repositoryPom(String groupId, String artifactId, String version) {
+        return resolver.repositoryPom(groupId, artifactId, version);
+    }
+    
+    private static String pom(String body) {
+        return "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>" + body + "</project>";
+    }
+    
+    private static String dependency(String groupId, String artifactId, String version) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId>"
+            + (version != null ? "<version>" + version + "</version>" : "") + "</dependency>";
+    }
+    
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
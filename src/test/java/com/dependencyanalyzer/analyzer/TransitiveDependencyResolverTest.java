@@ -0,0 +1,151 @@
+package com.dependencyanalyzer.analyzer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransitiveDependencyResolverTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private MavenModelResolver modelResolver;
+    private TransitiveDependencyResolver resolver;
+    
+    @Before
+    public void setUp() throws IOException {
+        modelResolver = new MavenModelResolver(folder.getRoot().toPath());
+        resolver = new TransitiveDependencyResolver(modelResolver);
+        
+        writePom("com.example", "client", "1.0",
+            dependency("com.example", "codec", "2.0", "") +
+            dependency("org.xerial.snappy", "snappy-java", "1.1.10", "") +
+            dependency("org.lz4", "lz4-java", "1.8.0", ""));
+        writePom("com.example", "codec", "2.0",
+            dependency("org.slf4j", "slf4j-api", "2.0.9", "") +
+            dependency("org.mockito", "mockito-core", "5.4.0", "<scope>test</scope>"));
+        writePom("com.example", "server", "1.0",
+            dependency("com.example", "codec", "2.0",
+                "<exclusions><exclusion><groupId>org.slf4j</groupId><artifactId>*</artifactId></exclusion></exclusions>"));
+        writePom("org.xerial.snappy", "snappy-java", "1.1.10",
+            dependency("org.osgi", "org.osgi.core", "6.0.0", ""));
+        writePom("org.osgi", "org.osgi.core", "6.0.0", "");
+        writePom("com.example", "gateway", "1.0",
+            dependency("com.example", "client", "1.0",
+                "<exclusions><exclusion><groupId>org.xerial.snappy</groupId><artifactId>snappy-java</artifactId></exclusion></exclusions>") +
+            dependency("com.example", "codec", "2.0", ""));
+        writePom("org.lz4", "lz4-java", "1.8.0", "");
+        writePom("org.slf4j", "slf4j-api", "2.0.9", "");
+    }
+    
+    @Test
+    public void walksCompileDependencies() {
+        Map<String, String> closure = resolver.resolve(direct("com.example:client", "1.0"), Collections.emptyMap());
+        
+        assertEquals("2.0", closure.get("com.example:codec"));
+        assertEquals("1.1.10", closure.get("org.xerial.snappy:snappy-java"));
+        assertEquals("2.0.9", closure.get("org.slf4j:slf4j-api"));
+        assertFalse(closure.containsKey("org.mockito:mockito-core"));
+        assertFalse(closure.containsKey("com.example:client"));
+        assertEquals(0, resolver.getMissingArtifactCount());
+    }
+    
+    @Test
+    public void appliesExclusionsOfDependencyPoms() {
+        Map<String, String> closure = resolver.resolve(direct("com.example:server", "1.0"), Collections.emptyMap());
+        
+        assertTrue(closure.containsKey("com.example:codec"));
+        assertFalse(closure.containsKey("org.slf4j:slf4j-api"));
+    }
+    
+    @Test
+    public void appliesExclusionsOfDirectDependencies() {
+        Map<String, Set<String>> exclusions = Collections.singletonMap("com.example:client",
+            Set.of("org.xerial.snappy:snappy-java", "org.slf4j:*"));
+        Map<String, String> closure = resolver.resolve(direct("com.example:client", "1.0"), exclusions);
+        
+        assertTrue(closure.containsKey("com.example:codec"));
+        assertTrue(closure.containsKey("org.lz4:lz4-java"));
+        assertFalse(closure.containsKey("org.xerial.snappy:snappy-java"));
+        assertFalse(closure.containsKey("org.slf4j:slf4j-api"));
+        
+        // Exclusions apply to the repository's dependencies, not to the cached closure
+        assertTrue(resolver.resolve(direct("com.example:client", "1.0"), Collections.emptyMap())
+            .containsKey("org.xerial.snappy:snappy-java"));
+    }
+    
+    @Test
+    public void prunesWhatOnlyExcludedArtifactsBringIn() {
+        Map<String, String> client = resolver.resolve(direct("com.example:client", "1.0"), Collections.emptyMap());
+        assertEquals("6.0.0", client.get("org.osgi:org.osgi.core"));
+        
+        Map<String, String> gateway = resolver.resolve(direct("com.example:gateway", "1.0"), Collections.emptyMap());
+        assertTrue(gateway.containsKey("com.example:client"));
+        assertTrue(gateway.containsKey("org.lz4:lz4-java"));
+        assertFalse(gateway.containsKey("org.xerial.snappy:snappy-java"));
+        assertFalse(gateway.containsKey("org.osgi:org.osgi.core"));
+        
+        Map<String, String> direct = resolver.resolve(direct("com.example:client", "1.0"),
+            Collections.singletonMap("com.example:client", Set.of("org.xerial.snappy:snappy-java")));
+        assertFalse(direct.containsKey("org.osgi:org.osgi.core"));
+    }
+    
+    @Test
+    public void keepsArtifactsReachedAnotherWay() {
+        Map<String, String> gateway = resolver.resolve(direct("com.example:gateway", "1.0"),
+            Collections.singletonMap("com.example:gateway", Set.of("org.slf4j:slf4j-api")));
+        
+        // Excluded below gateway, so neither path through client nor codec reaches it
+        assertFalse(gateway.containsKey("org.slf4j:slf4j-api"));
+        
+        Map<String, Set<String>> exclusions = Collections.singletonMap("com.example:client", Set.of("org.slf4j:*"));
+        Map<String, String> both = new LinkedHashMap<>();
+        both.put("com.example:client", "1.0");
+        both.put("com.example:codec", "2.0");
+        // Codec still brings in slf4j-api
+        assertEquals("2.0.9", resolver.resolve(both, exclusions).get("org.slf4j:slf4j-api"));
+    }
+    
+    @Test
+    public void countsMissingArtifacts() {
+        Map<String, String> closure = resolver.resolve(direct("com.example:absent", "9.9"), Collections.emptyMap());
+        
+        assertTrue(closure.isEmpty());
+        assertEquals(1, resolver.getMissingArtifactCount());
+    }
+    
+    private static Map<String, String> direct(String key, String version) {
+        Map<String, String> dependencies = new LinkedHashMap<>();
+        dependencies.put(key, version);
+        return dependencies;
+    }
+    
+    private void writePom(String groupId, String artifactId, String version, String dependencies) throws IOException {
+        Path pomFile = modelResolver.repositoryPom(groupId, artifactId, version);
+        Files.createDirectories(pomFile.getParent());
+        String content = "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>"
+            + "<groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId><version>" + version + "</version>"
+            + "<dependencies>" + dependencies + "</dependencies></project>";
+        Files.write(pomFile, content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String dependency(String groupId, String artifactId, String version, String extra) {
+        return "<dependency><groupId>" + groupId + "</groupId><artifactId>" + artifactId + "</artifactId>"
+            + "<version>" + version + "</version>" + extra + "</dependency>";
+    }
+}
+
@@ -0,0 +1,74 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FactIndexTest {
+    
+    private final RepositoryFacts orders = repo("orders",
+        "com.example.api.Order", "com.example.api.Customer", "org.slf4j.Logger");
+    private final RepositoryFacts billing = repo("billing", "com.example.api.Order", "org.slf4j.Logger");
+    private final RepositoryFacts shipping = repo("shipping", "org.slf4j.Logger");
+    private final RepositoryFacts search = repo("search", "org.apache.lucene.Index");
+    private final FactIndex index = new FactIndex(Arrays.asList(orders, billing, shipping, search));
+    
+    @Test
+    public void findsCommonFactsPerTarget() {
+        Map<String, Set<String>> common = index.commonFacts(FactIndex.FactKind.IMPORT, orders,
+            Set.of("billing", "shipping", "search"));
+        
+        assertEquals(Set.of("com.example.api.Order", "org.slf4j.Logger"), common.get("billing"));
+        assertEquals(Set.of("org.slf4j.Logger"), common.get("shipping"));
+        assertFalse(common.containsKey("search"));
+    }
+    
+    @Test
+    public void countsOverlapsWithoutTheSourceItself() {
+        Map<String, Integer> counts = index.overlapCounts(FactIndex.FactKind.IMPORT, orders,
+            Set.of("orders", "billing", "search"));
+        
+        assertEquals(Map.of("billing", 2), counts);
+        assertEquals(1, index.sampleCommonFacts(FactIndex.FactKind.IMPORT, orders, "billing", 1).size());
+    }
+    
+    @Test
+    public void listsRepositoriesPerFact() {
+        assertEquals(List.of("orders", "billing", "shipping"),
+            index.repositoriesWith(FactIndex.FactKind.IMPORT, "org.slf4j.Logger"));
+        assertEquals(Collections.emptyList(), index.repositoriesWith(FactIndex.FactKind.IMPORT, "com.example.Unknown"));
+        
+        Map<String, List<String>> shared = index.sharedFacts(FactIndex.FactKind.IMPORT, 2);
+        assertEquals(List.of("org.slf4j.Logger", "com.example.api.Order"), List.copyOf(shared.keySet()));
+    }
+    
+    @Test
+    public void reindexesAddedRepositories() {
+        assertTrue(index.repositoriesWith(FactIndex.FactKind.IMPORT, "org.apache.lucene.Index").contains("search"));
+        
+        index.add(repo("search", "org.slf4j.Logger"));
+        
+        assertEquals(List.of("orders", "billing", "shipping", "search"),
+            index.repositoriesWith(FactIndex.FactKind.IMPORT, "org.slf4j.Logger"));
+        assertEquals(Collections.emptyList(), index.repositoriesWith(FactIndex.FactKind.IMPORT, "org.apache.lucene.Index"));
+    }
+    
+    private static RepositoryFacts repo(String name, String... imports) {
+        RepositoryFacts repo = new RepositoryFacts(name, "/repos/" + name);
+        FileFacts facts = new FileFacts();
+        facts.setSourceFile(true);
+        Arrays.stream(imports).forEach(facts::addImport);
+        repo.addFile("src/main/java/App.java", facts);
+        return repo;
+    }
+}
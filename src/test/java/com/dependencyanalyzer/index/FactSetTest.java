@@ -0,0 +1,133 @@
+package com.dependencyanalyzer.index;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FactSetTest {
+    
+    // Groups of more than 4096 IDs are stored as bitmaps, smaller ones as arrays
+    private static final int DENSE = 10000;
+    private static final int SPARSE = 300;
+    
+    private final Random random = new Random(42);
+    
+    @Test
+    public void emptySet() {
+        assertSame(FactSet.EMPTY, FactSet.of(new int[0]));
+        assertEquals(0, FactSet.EMPTY.cardinality());
+        assertEquals(0, FactSet.EMPTY.andCardinality(FactSet.of(new int[] {1, 2})));
+        assertEquals(0, FactSet.EMPTY.and(FactSet.of(new int[] {1, 2}), 10).length);
+    }
+    
+    @Test
+    public void keepsIdsOfArrayAndBitmapGroups() {
+        int[] ids = ids(new int[] {0, 1, 3, 70}, new int[] {SPARSE, DENSE, SPARSE, DENSE});
+        FactSet set = FactSet.of(ids);
+        
+        assertEquals(ids.length, set.cardinality());
+        assertArrayEquals(ids, set.toArray());
+        assertArrayEquals(ids, set.toBitmaps().toArray());
+        assertEquals(ids.length, set.toBitmaps().cardinality());
+    }
+    
+    @Test
+    public void keepsGroupBoundaries() {
+        int[] ids = {0, 65535, 65536, 131071, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        FactSet set = FactSet.of(ids);
+        
+        assertArrayEquals(ids, set.toArray());
+        assertArrayEquals(ids, set.toBitmaps().toArray());
+        assertEquals(ids.length, set.andCardinality(set.toBitmaps()));
+    }
+    
+    @Test
+    public void countsIntersectionsOfEveryContainerPair() {
+        // Same groups, each stored as an array in one set and as an array or a bitmap in the other
+        int[][] sizes = {
+            {SPARSE, SPARSE, DENSE, DENSE},
+            {SPARSE, DENSE, SPARSE, DENSE}
+        };
+        int[] groups = {0, 1, 2, 3};
+        FactSet a = FactSet.of(ids(groups, sizes[0]));
+        FactSet b = FactSet.of(ids(groups, sizes[1]));
+        Set<Integer> expected = intersection(a.toArray(), b.toArray());
+        
+        assertEquals(expected.size(), a.andCardinality(b));
+        assertEquals(expected.size(), b.andCardinality(a));
+        assertEquals(expected.size(), a.toBitmaps().andCardinality(b));
+        assertEquals(expected.size(), a.toBitmaps().andCardinality(b.toBitmaps()));
+        assertArrayEquals(sorted(expected), a.and(b, Integer.MAX_VALUE));
+        assertArrayEquals(sorted(expected), b.and(a, Integer.MAX_VALUE));
+        assertArrayEquals(sorted(expected), a.toBitmaps().and(b.toBitmaps(), Integer.MAX_VALUE));
+    }
+    
+    @Test
+    public void countsIntersectionsOfRandomSets() {
+        for (int round = 0; round < 20; round++) {
+            int[] a = ids(new int[] {0, 1, 5}, new int[] {random.nextInt(DENSE), random.nextInt(DENSE), random.nextInt(SPARSE)});
+            int[] b = ids(new int[] {1, 2, 5}, new int[] {random.nextInt(DENSE), random.nextInt(DENSE), random.nextInt(DENSE)});
+            Set<Integer> expected = intersection(a, b);
+            
+            assertEquals(expected.size(), FactSet.of(a).andCardinality(FactSet.of(b)));
+            assertEquals(expected.size(), FactSet.of(a).toBitmaps().andCardinality(FactSet.of(b)));
+            assertArrayEquals(sorted(expected), FactSet.of(a).and(FactSet.of(b), Integer.MAX_VALUE));
+        }
+    }
+    
+    @Test
+    public void stopsAtTheLimit() {
+        int[] groups = {0, 1};
+        FactSet a = FactSet.of(ids(groups, new int[] {DENSE, SPARSE}));
+        FactSet b = FactSet.of(ids(groups, new int[] {DENSE, DENSE}));
+        int[] all = sorted(intersection(a.toArray(), b.toArray()));
+        
+        for (int limit : new int[] {0, 1, 17, all.length - 1, all.length, all.length + 5}) {
+            int[] expected = Arrays.copyOf(all, Math.min(limit, all.length));
+            assertArrayEquals(expected, a.and(b, limit));
+            assertArrayEquals(expected, a.toBitmaps().and(b, limit));
+            assertArrayEquals(expected, b.and(a.toBitmaps(), limit));
+        }
+    }
+    
+    /**
+     * Sorted random IDs, the given number in each group of 65536
+     */
+    private int[] ids(int[] groups, int[] sizes) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (int g = 0; g < groups.length; g++) {
+            Set<Integer> group = new HashSet<>();
+            while (group.size() < sizes[g]) {
+                group.add((groups[g] << 16) | random.nextInt(1 << 16));
+            }
+            ids.addAll(group);
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
+    private static Set<Integer> intersection(int[] a, int[] b) {
+        Set<Integer> result = new HashSet<>();
+        for (int id : a) {
+            result.add(id);
+        }
+        Set<Integer> other = new HashSet<>();
+        for (int id : b) {
+            other.add(id);
+        }
+        result.retainAll(other);
+        return result;
+    }
+    
+    private static int[] sorted(Set<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+}
+
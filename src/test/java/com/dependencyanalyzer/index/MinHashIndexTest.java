@@ -0,0 +1,76 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MinHashIndexTest {
+    
+    // Standard error of a 128-hash estimate is at most 0.045
+    private static final double TOLERANCE = 0.15;
+    
+    @Test
+    public void estimatesJaccardSimilarity() {
+        MinHashIndex index = index(0.5,
+            repo("a", 0, 200),
+            repo("b", 0, 200),
+            repo("c", 100, 300),
+            repo("d", 1000, 1200));
+        
+        assertEquals(1.0, index.estimateSimilarity("a", "b"), 0);
+        assertEquals(100.0 / 300, index.estimateSimilarity("a", "c"), TOLERANCE);
+        assertEquals(0.0, index.estimateSimilarity("a", "d"), TOLERANCE);
+        assertEquals(index.estimateSimilarity("a", "c"), index.estimateSimilarity("c", "a"), 0);
+    }
+    
+    @Test
+    public void keepsSimilarPairsAsCandidates() {
+        MinHashIndex index = index(0.5,
+            repo("a", 0, 200),
+            repo("b", 0, 200),
+            repo("near", 0, 190),
+            repo("far", 1000, 1200));
+        
+        assertTrue(index.isCandidate("a", "b"));
+        assertTrue(index.isCandidate("b", "a"));
+        assertTrue(index.isCandidate("a", "near"));
+        assertFalse(index.isCandidate("a", "far"));
+        assertFalse(index.isCandidate("a", "a"));
+    }
+    
+    @Test
+    public void ignoresRepositoriesWithoutFacts() {
+        MinHashIndex index = index(0.1, repo("a", 0, 50), repo("empty", 0, 0));
+        
+        assertEquals(0.0, index.estimateSimilarity("a", "empty"), 0);
+        assertFalse(index.isCandidate("a", "empty"));
+    }
+    
+    private static MinHashIndex index(double threshold, RepositoryFacts... repos) {
+        List<RepositoryFacts> list = Arrays.asList(repos);
+        List<String> names = list.stream().map(RepositoryFacts::getName).collect(Collectors.toList());
+        return new MinHashIndex(new FactIndex(list), names, threshold);
+    }
+    
+    /**
+     * A repository importing classes numbered from start (inclusive) to end (exclusive)
+     */
+    private static RepositoryFacts repo(String name, int start, int end) {
+        RepositoryFacts repo = new RepositoryFacts(name, "/repos/" + name);
+        FileFacts facts = new FileFacts();
+        for (int i = start; i < end; i++) {
+            facts.addImport("com.example.Type" + i);
+        }
+        repo.addFile("src/main/java/App.java", facts);
+        return repo;
+    }
+}
+
@@ -0,0 +1,101 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.analyzer.CodeFingerprinter;
+import com.dependencyanalyzer.model.FileFacts;
+import com.dependencyanalyzer.model.RepositoryFacts;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NearDuplicateIndexTest {
+    
+    private static final String ORIGINAL = tokens(0, 200);
+    // The same file with a few of its tokens changed
+    private static final String EDITED = tokens(0, 90) + tokens(5000, 3) + tokens(93, 107);
+    
+    @Test
+    public void findsEditedCopiesInComparedRepositories() {
+        RepositoryFacts a = repo("a", "Orders.java", ORIGINAL, "Other.java", tokens(1000, 100));
+        RepositoryFacts b = repo("b", "OrdersCopy.java", EDITED, "Unrelated.java", tokens(2000, 100));
+        NearDuplicateIndex index = new NearDuplicateIndex(Arrays.asList(a, b), pairs("a", "b"), 0.5);
+        
+        List<NearDuplicateIndex.FilePair> pairs = index.between("a", "b");
+        assertEquals(1, pairs.size());
+        assertEquals("Orders.java", pairs.get(0).getSourcePath());
+        assertEquals("OrdersCopy.java", pairs.get(0).getTargetPath());
+        assertTrue(pairs.get(0).getSimilarity() >= 0.5 && pairs.get(0).getSimilarity() < 1);
+        
+        List<NearDuplicateIndex.FilePair> reversed = index.between("b", "a");
+        assertEquals("OrdersCopy.java", reversed.get(0).getSourcePath());
+        assertEquals(pairs.get(0).getSimilarity(), reversed.get(0).getSimilarity(), 0);
+    }
+    
+    @Test
+    public void appliesTheThreshold() {
+        RepositoryFacts a = repo("a", "Orders.java", ORIGINAL);
+        RepositoryFacts b = repo("b", "Half.java", tokens(0, 100) + tokens(3000, 100));
+        
+        assertEquals(1, new NearDuplicateIndex(Arrays.asList(a, b), pairs("a", "b"), 0.2).between("a", "b").size());
+        assertTrue(new NearDuplicateIndex(Arrays.asList(a, b), pairs("a", "b"), 0.9).between("a", "b").isEmpty());
+    }
+    
+    @Test
+    public void skipsIdenticalFilesAndRepositoriesNotCompared() {
+        RepositoryFacts a = repo("a", "Orders.java", ORIGINAL);
+        RepositoryFacts b = repo("b", "Orders.java", ORIGINAL);
+        RepositoryFacts c = repo("c", "OrdersCopy.java", EDITED);
+        NearDuplicateIndex index = new NearDuplicateIndex(Arrays.asList(a, b, c), pairs("a", "b"), 0.5);
+        
+        // Identical content is reported by the content hash instead
+        assertTrue(index.between("a", "b").isEmpty());
+        assertTrue(index.between("a", "c").isEmpty());
+        assertTrue(index.between("b", "c").isEmpty());
+    }
+    
+    @Test
+    public void skipsFilesOfTheSameRepository() {
+        RepositoryFacts a = repo("a", "Orders.java", ORIGINAL, "OrdersCopy.java", EDITED);
+        RepositoryFacts b = repo("b", "Other.java", tokens(1000, 100));
+        NearDuplicateIndex index = new NearDuplicateIndex(Arrays.asList(a, b), pairs("a", "b"), 0.5);
+        
+        assertTrue(index.between("a", "a").isEmpty());
+        assertTrue(index.between("a", "b").isEmpty());
+    }
+    
+    private static Map<String, Set<String>> pairs(String repo1, String repo2) {
+        return Collections.singletonMap(repo1, Collections.singleton(repo2));
+    }
+    
+    /**
+     * A repository with files given as alternating paths and sources
+     */
+    private static RepositoryFacts repo(String name, String... files) {
+        RepositoryFacts repo = new RepositoryFacts(name, "/repos/" + name);
+        for (int i = 0; i < files.length; i += 2) {
+            CodeFingerprinter fingerprinter = new CodeFingerprinter();
+            fingerprinter.addLine(files[i + 1]);
+            FileFacts facts = new FileFacts();
+            facts.setSourceFile(true);
+            facts.setContentHash(Integer.toHexString(files[i + 1].hashCode()));
+            facts.setFingerprints(fingerprinter.fingerprints());
+            repo.addFile(files[i], facts);
+        }
+        return repo;
+    }
+    
+    private static String tokens(int start, int count) {
+        StringBuilder source = new StringBuilder();
+        for (int i = start; i < start + count; i++) {
+            source.append(" t").append(i);
+        }
+        return source.toString();
+    }
+}
+
@@ -0,0 +1,61 @@
+package com.dependencyanalyzer.index;
+
+import com.dependencyanalyzer.model.FileFacts;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class SymbolTableTest {
+    
+    @Test
+    public void internsStringsOnce() {
+        SymbolTable symbols = new SymbolTable();
+        
+        assertArrayEquals(new int[] {0, 1, 2}, symbols.internAll(Arrays.asList("c", "a", "c", "b", "a")));
+        assertEquals(1, symbols.intern("a"));
+        assertEquals("b", symbols.symbol(2));
+        assertEquals(-1, symbols.idOf("d"));
+        assertEquals(3, symbols.size());
+        assertArrayEquals(new int[0], symbols.internAll(Collections.emptyList()));
+    }
+    
+    @Test
+    public void canonicalizesFactsOfDifferentFiles() {
+        SymbolTable symbols = new SymbolTable();
+        FileFacts first = facts("java.util.List", "spring.datasource.url");
+        FileFacts second = facts("java.util.List", "spring.datasource.url");
+        
+        first.canonicalize(symbols::canonical);
+        second.canonicalize(symbols::canonical);
+        
+        assertSame(first.getImports().get(0), second.getImports().get(0));
+        assertSame(first.getConfigKeys().iterator().next(), second.getConfigKeys().iterator().next());
+        assertSame(first.getDependencies().keySet().iterator().next(), second.getDependencies().keySet().iterator().next());
+    }
+    
+    @Test
+    public void assignsIdsInIndexingOrderOnly() {
+        SymbolTable symbols = new SymbolTable();
+        String canonical = symbols.canonical(new String("b"));
+        
+        assertEquals(-1, symbols.idOf("b"));
+        assertEquals(0, symbols.intern("a"));
+        assertEquals(1, symbols.intern(new String("b")));
+        assertSame(canonical, symbols.symbol(1));
+    }
+    
+    private static FileFacts facts(String importName, String configKey) {
+        FileFacts facts = new FileFacts();
+        // Copies, so equal strings start out as different instances
+        facts.addImport(new String(importName));
+        facts.addConfigKey(new String(configKey));
+        facts.putDependency(new String("com.google.guava:guava"), "32.1.2-jre");
+        return facts;
+    }
+}
+
@@ -0,0 +1,82 @@
+package com.dependencyanalyzer.scanner;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChangeSetTest {
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void listsBothSidesOfARename() throws Exception {
+        Path repo = folder.newFolder("orders").toPath();
+        git(repo, "init", "-q");
+        write(repo.resolve("src/main/java/com/example/OrderClient.java"), "package com.example;\n\ninterface OrderClient {}\n");
+        write(repo.resolve("README.md"), "orders\n");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "initial");
+        
+        git(repo, "mv", "src/main/java/com/example/OrderClient.java", "src/main/java/com/example/OrdersClient.java");
+        git(repo, "commit", "-q", "-m", "rename");
+        
+        Map<String, String> repos = Collections.singletonMap("orders", repo.toString());
+        ChangeSet changes = ChangeSet.fromGitDiff(repos, "HEAD~1", "HEAD");
+        
+        assertEquals(new TreeSet<>(Arrays.asList(
+                "src/main/java/com/example/OrderClient.java",
+                "src/main/java/com/example/OrdersClient.java")),
+            changes.getChangedFiles("orders"));
+    }
+    
+    @Test
+    public void listsWorkingTreeChanges() throws Exception {
+        Path repo = folder.newFolder("billing").toPath();
+        git(repo, "init", "-q");
+        write(repo.resolve("pom.xml"), "<project/>\n");
+        git(repo, "add", ".");
+        git(repo, "commit", "-q", "-m", "initial");
+        
+        write(repo.resolve("pom.xml"), "<project></project>\n");
+        Set<String> changed = ChangeSet.fromGitDiff(Collections.singletonMap("billing", repo.toString()), "HEAD", null)
+            .getChangedFiles("billing");
+        
+        assertEquals(Collections.singleton("pom.xml"), changed);
+    }
+    
+    private static void git(Path repo, String... args) throws IOException, InterruptedException {
+        String[] command = new String[args.length + 7];
+        command[0] = "git";
+        command[1] = "-C";
+        command[2] = repo.toString();
+        command[3] = "-c";
+        command[4] = "user.name=test";
+        command[5] = "-c";
+        command[6] = "user.email=test@example.com";
+        System.arraycopy(args, 0, command, 7, args.length);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IOException("git " + String.join(" ", args) + " failed: " + output);
+        }
+    }
+    
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
+
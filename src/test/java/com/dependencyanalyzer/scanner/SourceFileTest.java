@@ -0,0 +1,73 @@
+package com.dependencyanalyzer.scanner;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SourceFileTest {
+    
+    private static final byte[] FEIGN = bytes("@FeignClient");
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void findsMarkersInSmallFilesAndKeepsTheContent() throws IOException {
+        SourceFile file = file("Client.java", "@FeignClient(name = \"orders\")\ninterface OrdersClient {}\n");
+        
+        assertFalse(file.isLoaded());
+        assertTrue(file.containsAny(bytes("nothing"), FEIGN));
+        assertTrue(file.isLoaded());
+        assertTrue(file.getContent().startsWith("@FeignClient"));
+        assertFalse(file.containsAny(bytes("@RestController")));
+    }
+    
+    @Test
+    public void findsMarkersInMappedFiles() throws IOException {
+        char[] padding = new char[100 * 1024];
+        Arrays.fill(padding, ' ');
+        SourceFile file = file("Large.java", new String(padding) + "@FeignClient");
+        
+        assertTrue(file.containsAny(FEIGN));
+        assertFalse(file.isLoaded());
+        assertFalse(file.containsAny(bytes("@FeignClientX")));
+    }
+    
+    @Test
+    public void matchesCaseSensitively() throws IOException {
+        assertFalse(file("Client.java", "@feignclient(\"orders\")").containsAny(FEIGN));
+        assertFalse(file("Other.java", "@Feign Client").containsAny(FEIGN));
+    }
+    
+    @Test
+    public void handlesMarkersAtTheEndAndEmptyFiles() throws IOException {
+        assertTrue(file("End.java", "x@FeignClient").containsAny(FEIGN));
+        assertFalse(file("Cut.java", "x@FeignClien").containsAny(FEIGN));
+        
+        SourceFile empty = file("Empty.java", "");
+        assertFalse(empty.containsAny(FEIGN));
+        assertEquals("", empty.getContent());
+    }
+    
+    private SourceFile file(String name, String content) throws IOException {
+        Path root = folder.getRoot().toPath();
+        Path path = root.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return new SourceFile(root, path);
+    }
+    
+    private static byte[] bytes(String marker) {
+        return marker.getBytes(StandardCharsets.US_ASCII);
+    }
+}
+